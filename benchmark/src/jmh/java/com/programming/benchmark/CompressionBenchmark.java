@@ -0,0 +1,159 @@
+package com.programming.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.programming.dashboard.dto.CustomerDTO;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * End-to-end fetch of a customer listing over loopback HTTP: the server encodes the list (and gzips it when the client
+ * asks), the client is the dashboard's pooled HttpClient behind a RestTemplate that decodes it. Bytes on the wire per
+ * call are reported next to each timing as wireBytesPerCall. Loopback has practically unlimited bandwidth, so the
+ * latency here is the CPU cost of each combination; on a real network add the transfer time of that size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CompressionBenchmark {
+
+    private static final String SMILE_CONTENT_TYPE = "application/x-jackson-smile";
+
+    @Param({"10000"})
+    private int size;
+
+    @Param({"json", "smile"})
+    private String format;
+
+    @Param({"identity", "gzip"})
+    private String compression;
+
+    private HttpServer httpServer;
+
+    private ExecutorService serverExecutor;
+
+    private CloseableHttpClient httpClient;
+
+    private RestTemplate restTemplate;
+
+    private String url;
+
+    private final AtomicLong wireBytes = new AtomicLong();
+
+    private final AtomicLong calls = new AtomicLong();
+
+    @Setup
+    public void setUp() throws IOException {
+        List<com.programming.customer.dto.CustomerDTO> customerDTOList = CustomerFixtures.commonNameCustomerDTOs(size);
+        ObjectMapper objectMapper = objectMapper();
+        String contentType = "smile".equals(format) ? SMILE_CONTENT_TYPE : "application/json";
+
+        // Without TCP_NODELAY, small bodies stall on Nagle plus delayed ACKs and dominate the timings.
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        httpServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        serverExecutor = Executors.newFixedThreadPool(2);
+        httpServer.setExecutor(serverExecutor);
+        httpServer.createContext("/customers", exchange -> {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+            try (OutputStream outputStream = gzip ? new GZIPOutputStream(body) : body) {
+                objectMapper.writeValue(outputStream, customerDTOList);
+            }
+            exchange.getResponseHeaders().set("Content-Type", contentType);
+            if (gzip) {
+                exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            }
+            exchange.sendResponseHeaders(200, body.size());
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                body.writeTo(responseBody);
+            }
+            wireBytes.addAndGet(body.size());
+            calls.incrementAndGet();
+        });
+        httpServer.start();
+        url = "http://127.0.0.1:" + httpServer.getAddress().getPort() + "/customers";
+
+        HttpClientBuilder httpClientBuilder = HttpClientBuilder.create()
+                .setConnectionManager(new PoolingHttpClientConnectionManager());
+        if ("identity".equals(compression)) {
+            httpClientBuilder.disableContentCompression();
+        }
+        httpClient = httpClientBuilder.build();
+        restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+        restTemplate.setMessageConverters(Collections.singletonList("smile".equals(format)
+                ? new MappingJackson2SmileHttpMessageConverter(objectMapper)
+                : new MappingJackson2HttpMessageConverter(objectMapper)));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        httpClient.close();
+        httpServer.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public CustomerDTO[] fetchCustomers(WireSize wireSize) {
+        return restTemplate.getForObject(url, CustomerDTO[].class);
+    }
+
+    /**
+     * Publishes the average response body size so far as a secondary result, so it lands in results.json with the
+     * timings. Read at the end of each iteration; warmup calls count too, which is harmless as every response to the
+     * same parameters has the same size.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class WireSize {
+
+        private CompressionBenchmark benchmark;
+
+        @Setup
+        public void setUp(CompressionBenchmark benchmark) {
+            this.benchmark = benchmark;
+        }
+
+        public long wireBytesPerCall() {
+            return benchmark.wireBytes.get() / Math.max(1, benchmark.calls.get());
+        }
+    }
+
+    private ObjectMapper objectMapper() {
+        if ("smile".equals(format)) {
+            return Jackson2ObjectMapperBuilder.smile().factory(SmileFactory.builder()
+                    .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES).build()).build();
+        }
+        return Jackson2ObjectMapperBuilder.json().build();
+    }
+}
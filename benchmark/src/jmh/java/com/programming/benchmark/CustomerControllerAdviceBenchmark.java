@@ -0,0 +1,43 @@
+package com.programming.benchmark;
+
+import com.programming.customer.controller.CustomerControllerAdvice;
+import com.programming.customer.dto.ErrorDTO;
+import com.programming.customer.exception.CustomerNotFoundException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the not-found error path, including building the exception and its stack trace.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CustomerControllerAdviceBenchmark {
+
+    private CustomerControllerAdvice customerControllerAdvice;
+
+    private WebRequest webRequest;
+
+    @Setup
+    public void setUp() {
+        customerControllerAdvice = new CustomerControllerAdvice();
+        webRequest = new ServletWebRequest(new MockHttpServletRequest("GET", "/api/customer/100"));
+    }
+
+    @Benchmark
+    public ResponseEntity<ErrorDTO> customerNotFound() {
+        return customerControllerAdvice.customerNotFoundException(
+                new CustomerNotFoundException("Customer not found with id: 100"), webRequest);
+    }
+}
@@ -0,0 +1,57 @@
+package com.programming.benchmark;
+
+import com.programming.customer.dto.CustomerDTO;
+import com.programming.customer.persistence.model.Customer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+final class CustomerFixtures {
+
+    private static final String[] FIRST_NAMES = {"James", "Mary", "John", "Patricia", "Robert", "Jennifer", "Michael",
+            "Linda", "William", "Elizabeth", "David", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas",
+            "Sarah", "Charles", "Karen", "Daniel", "Nancy", "Matthew", "Lisa", "Anthony", "Margaret", "Mark", "Betty"};
+
+    private static final String[] LAST_NAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller",
+            "Davis", "Rodriguez", "Martinez", "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor",
+            "Moore", "Jackson", "Martin", "Lee", "Perez", "Thompson", "White", "Harris", "Sanchez", "Clark", "Lewis"};
+
+    private CustomerFixtures() {
+    }
+
+    static List<Customer> customers(int size) {
+        List<Customer> customerList = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            Customer customer = new Customer();
+            customer.setId((long) i);
+            customer.setFirstName("First" + i);
+            customer.setMiddleName(i % 3 == 0 ? null : "Middle" + i);
+            customer.setLastName("Last" + i);
+            customerList.add(customer);
+        }
+        return customerList;
+    }
+
+    static List<CustomerDTO> customerDTOs(int size) {
+        List<CustomerDTO> customerDTOList = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            customerDTOList.add(new CustomerDTO((long) i, "First" + i, i % 3 == 0 ? null : "Middle" + i, "Last" + i));
+        }
+        return customerDTOList;
+    }
+
+    /**
+     * Customers drawn from common first and last names, so names repeat the way they do in real listings.
+     */
+    static List<CustomerDTO> commonNameCustomerDTOs(int size) {
+        Random random = new Random(42);
+        List<CustomerDTO> customerDTOList = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            customerDTOList.add(new CustomerDTO((long) i, FIRST_NAMES[random.nextInt(FIRST_NAMES.length)],
+                    i % 3 == 0 ? null : FIRST_NAMES[random.nextInt(FIRST_NAMES.length)],
+                    LAST_NAMES[random.nextInt(LAST_NAMES.length)], (long) random.nextInt(5)));
+        }
+        return customerDTOList;
+    }
+}
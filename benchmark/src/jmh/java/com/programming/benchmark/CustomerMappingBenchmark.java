@@ -0,0 +1,69 @@
+package com.programming.benchmark;
+
+import com.programming.customer.dto.CustomerDTO;
+import com.programming.customer.persistence.model.Customer;
+import com.programming.customer.util.CustomerMapper;
+import org.dozer.DozerBeanMapper;
+import org.dozer.Mapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the hand-written {@link CustomerMapper} against the reflective Dozer mapping it replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CustomerMappingBenchmark {
+
+    @Param({"1", "100", "10000"})
+    private int size;
+
+    private List<Customer> customerList;
+
+    private CustomerDTO customerDTO;
+
+    private CustomerMapper customerMapper;
+
+    private Mapper dozerMapper;
+
+    @Setup
+    public void setUp() {
+        customerList = CustomerFixtures.customers(size);
+        customerDTO = CustomerFixtures.customerDTOs(1).get(0);
+        customerMapper = new CustomerMapper();
+        dozerMapper = new DozerBeanMapper();
+    }
+
+    @Benchmark
+    public List<CustomerDTO> dozerToCustomerDTOList() {
+        return customerList.stream()
+                .map(customer -> dozerMapper.map(customer, CustomerDTO.class))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<CustomerDTO> mapperToCustomerDTOList() {
+        return customerMapper.toCustomerDTOList(customerList);
+    }
+
+    @Benchmark
+    public Customer dozerToCustomer() {
+        return dozerMapper.map(customerDTO, Customer.class);
+    }
+
+    @Benchmark
+    public Customer mapperToCustomer() {
+        return customerMapper.toCustomer(customerDTO);
+    }
+}
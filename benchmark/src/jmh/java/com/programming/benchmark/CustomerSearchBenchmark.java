@@ -0,0 +1,61 @@
+package com.programming.benchmark;
+
+import com.programming.customer.dto.CustomerDTO;
+import com.programming.customer.service.CustomerSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Typeahead queries against the n-gram index, from a single prefix letter to a two-token full name.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CustomerSearchBenchmark {
+
+    private static final String[] SYLLABLES = {"jo", "han", "na", "mi", "chel", "li", "am", "son", "ber", "ta",
+            "ro", "sa", "ev", "an", "ka", "ri", "el", "de", "mar", "tin", "lu", "ca", "os", "wen"};
+
+    @Param({"1000000"})
+    private int size;
+
+    @Param({"m", "mar", "artin", "jo mar"})
+    private String query;
+
+    private CustomerSearchIndex customerSearchIndex;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        customerSearchIndex = new CustomerSearchIndex();
+        for (int i = 1; i <= size; i++) {
+            customerSearchIndex.index(new CustomerDTO((long) i, name(random), i % 3 == 0 ? null : name(random),
+                    name(random), 0L));
+        }
+    }
+
+    @Benchmark
+    public List<CustomerDTO> search() {
+        return customerSearchIndex.search(query, 10);
+    }
+
+    private static String name(Random random) {
+        StringBuilder name = new StringBuilder();
+        int syllables = 2 + random.nextInt(2);
+        for (int i = 0; i < syllables; i++) {
+            name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+        return name.toString();
+    }
+}
@@ -0,0 +1,44 @@
+package com.programming.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.programming.customer.dto.CustomerDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of customer listings, configured the way Spring Boot configures its ObjectMapper.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CustomerSerializationBenchmark {
+
+    @Param({"1", "100", "10000", "100000"})
+    private int size;
+
+    private List<CustomerDTO> customerDTOList;
+
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        customerDTOList = CustomerFixtures.customerDTOs(size);
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    @Benchmark
+    public byte[] serializeCustomerDTOList() throws IOException {
+        return objectMapper.writeValueAsBytes(customerDTOList);
+    }
+}
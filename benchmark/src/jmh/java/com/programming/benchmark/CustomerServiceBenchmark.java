@@ -0,0 +1,62 @@
+package com.programming.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.programming.customer.dto.CustomerDTO;
+import com.programming.customer.dto.CustomerPageDTO;
+import com.programming.customer.service.CustomerSearchIndex;
+import com.programming.customer.service.CustomerServiceImpl;
+import com.programming.customer.util.CustomerMapper;
+import com.programming.customer.util.CustomerNameUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service hot paths with the repository replaced by an in-memory stub.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CustomerServiceBenchmark {
+
+    @Param({"1", "100", "1000"})
+    private int limit;
+
+    private CustomerServiceImpl customerService;
+
+    @Setup
+    public void setUp() {
+        customerService = new CustomerServiceImpl(new InMemoryCustomerRepository(CustomerFixtures.customers(10_000)),
+                new CustomerMapper(), new ObjectMapper(), null, new CustomerSearchIndex(), () -> Optional.of("benchmark"));
+    }
+
+    @Benchmark
+    public CustomerPageDTO findCustomers() {
+        return customerService.findCustomers(0L, limit);
+    }
+
+    @Benchmark
+    public CustomerDTO saveCustomer() throws Exception {
+        return customerService.saveCustomer(new CustomerDTO(1L, "  John ", " Smith ", " Doe  "));
+    }
+
+    @Benchmark
+    public CustomerDTO updateCustomer() throws Exception {
+        return customerService.updateCustomer(new CustomerDTO(1L, "  John ", " Smith ", " Doe  "));
+    }
+
+    @Benchmark
+    public CustomerDTO trimCustomerName() {
+        CustomerDTO customerDTO = new CustomerDTO(1L, "  John ", " Smith ", " Doe  ");
+        CustomerNameUtil.trimCustomerName(customerDTO);
+        return customerDTO;
+    }
+}
@@ -0,0 +1,56 @@
+package com.programming.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.programming.dashboard.dto.CustomerDTO;
+import com.programming.dashboard.dto.CustomerPageDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dashboard side decoding of customer service responses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DashboardDeserializationBenchmark {
+
+    @Param({"1", "100", "10000", "100000"})
+    private int size;
+
+    private byte[] customerArrayJson;
+
+    private byte[] customerPageJson;
+
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        List<com.programming.customer.dto.CustomerDTO> customerDTOList = CustomerFixtures.customerDTOs(size);
+        customerArrayJson = objectMapper.writeValueAsBytes(customerDTOList);
+        customerPageJson = objectMapper.writeValueAsBytes(
+                new com.programming.customer.dto.CustomerPageDTO(customerDTOList, null));
+    }
+
+    @Benchmark
+    public List<CustomerDTO> customerArrayToList() throws IOException {
+        return Arrays.asList(objectMapper.readValue(customerArrayJson, CustomerDTO[].class));
+    }
+
+    @Benchmark
+    public CustomerPageDTO customerPage() throws IOException {
+        return objectMapper.readValue(customerPageJson, CustomerPageDTO.class);
+    }
+}
@@ -0,0 +1,152 @@
+package com.programming.benchmark;
+
+import com.programming.customer.persistence.model.Customer;
+import com.programming.customer.persistence.model.CustomerVersion;
+import com.programming.customer.persistence.repository.CustomerRepository;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Repository stub so service benchmarks measure mapping and bookkeeping rather than the database.
+ */
+class InMemoryCustomerRepository implements CustomerRepository {
+
+    private final TreeMap<Long, Customer> customers = new TreeMap<>();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    InMemoryCustomerRepository(List<Customer> customerList) {
+        customerList.forEach(this::save);
+    }
+
+    @Override
+    public List<Customer> findAll() {
+        return new ArrayList<>(customers.values());
+    }
+
+    @Override
+    public List<Customer> findCustomersAfter(Long after, Pageable pageable) {
+        return customers.tailMap(after, false).values().stream()
+                .limit(pageable.getPageSize())
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<CustomerVersion> findCustomerVersionsAfter(Long after, Pageable pageable) {
+        return customers.tailMap(after, false).values().stream()
+                .limit(pageable.getPageSize())
+                .map(customer -> new CustomerVersion(customer.getId(), customer.getVersion(), customer.getModifiedDate()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Customer> findCustomersModifiedAfter(Date since, Long after, Date until, Pageable pageable) {
+        return customers.values().stream()
+                .filter(customer -> customer.getModifiedDate() != null && !customer.getModifiedDate().after(until))
+                .filter(customer -> customer.getModifiedDate().after(since)
+                        || customer.getModifiedDate().equals(since) && customer.getId() > after)
+                .sorted(Comparator.comparing(Customer::getModifiedDate).thenComparing(Customer::getId))
+                .limit(pageable.getPageSize())
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Stream<Customer> streamAll() {
+        return customers.values().stream();
+    }
+
+    @Override
+    public <S extends Customer> S save(S customer) {
+        if (customer.getId() == null) {
+            customer.setId(sequence.incrementAndGet());
+        }
+        customers.put(customer.getId(), customer);
+        return customer;
+    }
+
+    @Override
+    public <S extends Customer> Iterable<S> saveAll(Iterable<S> customerIterable) {
+        List<S> saved = new ArrayList<>();
+        customerIterable.forEach(customer -> saved.add(save(customer)));
+        return saved;
+    }
+
+    @Override
+    public Optional<Customer> findById(Long id) {
+        return Optional.ofNullable(customers.get(id));
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return customers.containsKey(id);
+    }
+
+    @Override
+    public Iterable<Customer> findAllById(Iterable<Long> ids) {
+        return StreamSupport.stream(ids.spliterator(), false)
+                .map(customers::get)
+                .filter(customer -> customer != null)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Customer> findCustomersByIds(Collection<Long> ids) {
+        return ids.stream()
+                .sorted()
+                .map(customers::get)
+                .filter(customer -> customer != null)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Optional<Long> updateCustomer(Long customerId, String firstName, String middleName, String lastName,
+                                         Long version, Date modifiedDate, String modifiedBy) {
+        Customer customer = customers.get(customerId);
+        if (customer == null || (version != null && !version.equals(customer.getVersion()))) {
+            return Optional.empty();
+        }
+        customer.setFirstName(firstName);
+        customer.setMiddleName(middleName);
+        customer.setLastName(lastName);
+        customer.setModifiedDate(modifiedDate);
+        customer.setModifiedBy(modifiedBy);
+        customer.setVersion(customer.getVersion() == null ? 1L : customer.getVersion() + 1);
+        return Optional.of(customer.getVersion());
+    }
+
+    @Override
+    public long count() {
+        return customers.size();
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        customers.remove(id);
+    }
+
+    @Override
+    public void delete(Customer customer) {
+        customers.remove(customer.getId());
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends Customer> customerIterable) {
+        customerIterable.forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAll() {
+        customers.clear();
+    }
+}
@@ -0,0 +1,90 @@
+package com.programming.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Customer lists on the wire between the customer service and the dashboard: encoding on the customer side, decoding
+ * on the dashboard side, as JSON and as Smile with and without shared string values. The payload size is reported next
+ * to each timing as payloadBytes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WireFormatBenchmark {
+
+    @Param({"100", "10000"})
+    private int size;
+
+    @Param({"json", "smile", "smile-shared"})
+    private String format;
+
+    private List<com.programming.customer.dto.CustomerDTO> customerDTOList;
+
+    private ObjectMapper objectMapper;
+
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws IOException {
+        customerDTOList = CustomerFixtures.commonNameCustomerDTOs(size);
+        switch (format) {
+            case "json":
+                objectMapper = Jackson2ObjectMapperBuilder.json().build();
+                break;
+            case "smile":
+                objectMapper = Jackson2ObjectMapperBuilder.smile().build();
+                break;
+            default:
+                objectMapper = Jackson2ObjectMapperBuilder.smile().factory(SmileFactory.builder()
+                        .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES).build()).build();
+        }
+        payload = objectMapper.writeValueAsBytes(customerDTOList);
+    }
+
+    @Benchmark
+    public byte[] encode(PayloadSize payloadSize) throws IOException {
+        return objectMapper.writeValueAsBytes(customerDTOList);
+    }
+
+    @Benchmark
+    public List<com.programming.dashboard.dto.CustomerDTO> decode(PayloadSize payloadSize) throws IOException {
+        return Arrays.asList(objectMapper.readValue(payload, com.programming.dashboard.dto.CustomerDTO[].class));
+    }
+
+    /**
+     * Publishes the encoded size as a secondary result, so it lands in results.json with the timings. It is a gauge
+     * rather than a count: read at the end of each iteration, it does not grow with the number of calls.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PayloadSize {
+
+        private WireFormatBenchmark benchmark;
+
+        @Setup
+        public void setUp(WireFormatBenchmark benchmark) {
+            this.benchmark = benchmark;
+        }
+
+        public long payloadBytes() {
+            return benchmark.payload.length;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.programming.customer.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+// Run the cache interceptor outside the transaction interceptor so cache hits never open a transaction.
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+public class CacheConfig {
+
+    public static final String CUSTOMERS_CACHE = "customers";
+
+    @Value("${customer.cache.maximum-size}")
+    private long maximumSize;
+
+    @Value("${customer.cache.expire-after-write}")
+    private String expireAfterWrite;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager(CUSTOMERS_CACHE);
+        caffeineCacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(DurationStyle.detectAndParse(expireAfterWrite))
+                .recordStats());
+        // When a caller already holds a transaction, defer evictions until it commits.
+        return new TransactionAwareCacheManagerProxy(caffeineCacheManager);
+    }
+}
@@ -0,0 +1,100 @@
+package com.programming.customer.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the single auto-configured pool with one pool for the primary at spring.datasource.url and one per replica
+ * URL, routed by {@link ReadWriteRoutingDataSource}. Every pool takes the spring.datasource credentials and
+ * spring.datasource.hikari settings. Hibernate releases connections after each transaction, so every transaction is
+ * routed on its own.
+ */
+@Configuration
+@ConditionalOnProperty(name = "customer.datasource.routing.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    @Value("${customer.datasource.routing.replica-urls}")
+    private String[] replicaUrls;
+
+    @Value("${customer.datasource.routing.balancing}")
+    private String balancing;
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties dataSourceProperties, Environment environment,
+                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        HikariDataSource primary = pool("primary", dataSourceProperties.determineUrl(), dataSourceProperties,
+                environment, meterRegistry);
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String replicaUrl : replicaUrls) {
+            if (!replicaUrl.trim().isEmpty()) {
+                replicas.add(pool("replica-" + (replicas.size() + 1), replicaUrl.trim(), dataSourceProperties,
+                        environment, meterRegistry));
+            }
+        }
+        return new RoutingDataSourceProxy(new ReadWriteRoutingDataSource(primary, replicas,
+                ReadWriteRoutingDataSource.Balancing.of(balancing)));
+    }
+
+    /**
+     * Hands the connection back at the end of every transaction. Spring's default holds it as long as the
+     * EntityManager, which with open-in-view is the whole request, so a write after a read-only transaction would be
+     * sent to the replica the read was routed to.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer routingConnectionHandlingCustomizer() {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    private static HikariDataSource pool(String name, String url, DataSourceProperties dataSourceProperties,
+                                         Environment environment, ObjectProvider<MeterRegistry> meterRegistry) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        dataSource.setPoolName(name);
+        // The pools are not beans, so the hikaricp.* metrics have to be wired here; they are tagged with the pool name.
+        meterRegistry.ifAvailable(dataSource::setMetricRegistry);
+        return dataSource;
+    }
+
+    /**
+     * The only DataSource bean, so the routing data source and its pools are not picked up on their own, e.g. by the
+     * DataSource initializer. Closing it closes the pools.
+     */
+    private static final class RoutingDataSourceProxy extends LazyConnectionDataSourceProxy implements Closeable {
+
+        private final ReadWriteRoutingDataSource routingDataSource;
+
+        RoutingDataSourceProxy(ReadWriteRoutingDataSource routingDataSource) {
+            super(routingDataSource);
+            this.routingDataSource = routingDataSource;
+        }
+
+        @Override
+        public void close() {
+            routingDataSource.close();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.programming.customer.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.programming.customer.persistence.model.Customer;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.persistence.EntityManagerFactory;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.function.ToLongFunction;
+
+/**
+ * Hibernate second-level cache regions, held in JCache caches on Caffeine. The regions are created here from the
+ * customer.second-level-cache properties, and Hibernate is handed this cache manager instead of looking one up.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    @Value("${customer.second-level-cache.entity.maximum-size}")
+    private long entityMaximumSize;
+
+    @Value("${customer.second-level-cache.entity.expire-after-write}")
+    private String entityExpireAfterWrite;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("hibernate-second-level-cache"), getClass().getClassLoader());
+        cacheManager.createCache(Customer.CACHE_REGION, regionConfiguration(
+                OptionalLong.of(entityMaximumSize), expireAfterWrite(entityExpireAfterWrite)));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    /**
+     * Hits, misses and puts per region. The hibernate.second.level.cache.* metrics only give totals over all regions.
+     */
+    @Bean
+    public MeterBinder hibernateCacheRegionMetrics(EntityManagerFactory entityManagerFactory) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        String region = Customer.CACHE_REGION;
+        return registry -> {
+            regionCounter("hibernate.cache.region.requests", statistics, region, CacheRegionStatistics::getHitCount)
+                    .tag("result", "hit")
+                    .register(registry);
+            regionCounter("hibernate.cache.region.requests", statistics, region, CacheRegionStatistics::getMissCount)
+                    .tag("result", "miss")
+                    .register(registry);
+            regionCounter("hibernate.cache.region.puts", statistics, region, CacheRegionStatistics::getPutCount)
+                    .register(registry);
+        };
+    }
+
+    private static FunctionCounter.Builder<Statistics> regionCounter(String name, Statistics statistics, String region,
+                                                                     ToLongFunction<CacheRegionStatistics> count) {
+        return FunctionCounter.builder(name, statistics, stats -> {
+            CacheRegionStatistics regionStatistics = stats.getCacheRegionStatistics(region);
+            return regionStatistics == null ? 0 : count.applyAsLong(regionStatistics);
+        }).tag("region", region);
+    }
+
+    private static CaffeineConfiguration<Object, Object> regionConfiguration(OptionalLong maximumSize,
+                                                                             OptionalLong expireAfterWriteNanos) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(maximumSize);
+        configuration.setExpireAfterWrite(expireAfterWriteNanos);
+        // Hibernate already stores a disassembled copy of each entity, so copying it again on every get and put is waste.
+        configuration.setStoreByValue(false);
+        return configuration;
+    }
+
+    private static OptionalLong expireAfterWrite(String duration) {
+        return OptionalLong.of(DurationStyle.detectAndParse(duration).toNanos());
+    }
+}
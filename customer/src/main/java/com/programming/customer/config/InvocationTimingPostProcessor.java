@@ -0,0 +1,113 @@
+package com.programming.customer.config;
+
+import com.programming.customer.persistence.repository.CustomerRepository;
+import com.programming.customer.util.CustomerMapper;
+import com.programming.customer.util.RequestStats;
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.NameMatchMethodPointcutAdvisor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+
+/**
+ * Times every {@link CustomerRepository} call and the {@link CustomerMapper} list mapping. Single-row mapping is left
+ * out on purpose: it is cheaper than recording a timer sample and runs once per row during exports.
+ */
+@Component
+public class InvocationTimingPostProcessor implements BeanPostProcessor {
+
+    public static final String REPOSITORY_TIMER = "customer.repository.invocations";
+
+    public static final String MAPPER_TIMER = "customer.mapper.invocations";
+
+    private final ObjectProvider<MeterRegistry> meterRegistryProvider;
+
+    public InvocationTimingPostProcessor(ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        this.meterRegistryProvider = meterRegistryProvider;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof CustomerRepository) && !(bean instanceof CustomerMapper)) {
+            return bean;
+        }
+        MeterRegistry meterRegistry = meterRegistryProvider.getIfAvailable();
+        if (meterRegistry == null) {
+            return bean;
+        }
+
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        if (bean instanceof CustomerRepository) {
+            proxyFactory.addAdvice(timingInterceptor(meterRegistry, REPOSITORY_TIMER, CustomerRepository.class,
+                    RequestStats::addDbTime));
+        } else {
+            NameMatchMethodPointcutAdvisor advisor = new NameMatchMethodPointcutAdvisor(
+                    timingInterceptor(meterRegistry, MAPPER_TIMER, CustomerMapper.class, RequestStats::addMappingTime));
+            advisor.setMappedName("toCustomerDTOList");
+            proxyFactory.addAdvisor(advisor);
+        }
+        return proxyFactory.getProxy();
+    }
+
+    private static MethodInterceptor timingInterceptor(MeterRegistry meterRegistry, String timerName, Class<?> timedType,
+            LongConsumer requestTime) {
+        Clock clock = meterRegistry.config().clock();
+        // Timers are built once per method and exception, then only looked up here. Building and registering one per
+        // call would cost a builder, a tag list and a registry lookup on every database call.
+        Map<Method, Timer> successTimers = new ConcurrentHashMap<>();
+        Map<List<Object>, Timer> failureTimers = new ConcurrentHashMap<>();
+        return invocation -> {
+            long startNanos = clock.monotonicTime();
+            Throwable failure = null;
+            try {
+                return invocation.proceed();
+            } catch (Throwable e) {
+                failure = e;
+                throw e;
+            } finally {
+                long nanos = clock.monotonicTime() - startNanos;
+                Method method = invocation.getMethod();
+                Timer timer;
+                if (failure == null) {
+                    timer = cached(successTimers, method,
+                            key -> timer(meterRegistry, timerName, timedType, method, "none"));
+                } else {
+                    String exception = failure.getClass().getSimpleName();
+                    timer = cached(failureTimers, Arrays.asList(method, failure.getClass()),
+                            key -> timer(meterRegistry, timerName, timedType, method, exception));
+                }
+                timer.record(nanos, TimeUnit.NANOSECONDS);
+                // Also feed the per-request summary line logged by RequestSummaryFilter.
+                requestTime.accept(nanos);
+            }
+        };
+    }
+
+    private static <K> Timer cached(Map<K, Timer> timers, K key, Function<K, Timer> timer) {
+        // Try a plain get first: on Java 8, computeIfAbsent locks even when the key is present.
+        Timer cached = timers.get(key);
+        return cached != null ? cached : timers.computeIfAbsent(key, timer);
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String timerName, Class<?> timedType, Method method,
+                               String exception) {
+        return Timer.builder(timerName)
+                .tag("class", timedType.getSimpleName())
+                .tag("method", method.getName())
+                .tag("exception", exception)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,168 @@
+package com.programming.customer.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to a replica and everything else to the primary.
+ * <p>
+ * The read-only flag of a transaction is only set once it has begun, after the transaction manager asked for a
+ * connection, so this must sit behind a {@link LazyConnectionDataSourceProxy} that fetches the real connection on the
+ * first statement. The connection must also be released when the transaction ends rather than held for the next one
+ * (see {@link DataSourceRoutingConfig}). Once a request has used the primary in a read-write transaction, its later
+ * read-only transactions stay on the primary too, so a request always reads its own writes however far the replicas
+ * lag. A read-only transaction whose result outlives it in a cache reads the primary as well; see
+ * {@link #readFromPrimary()}.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    public enum Balancing {
+        ROUND_ROBIN, LEAST_CONNECTIONS;
+
+        /**
+         * Parses the property form, e.g. {@code least-connections}.
+         */
+        public static Balancing of(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        }
+    }
+
+    private static final String PRIMARY = "primary";
+
+    private static final String WROTE_ATTRIBUTE = ReadWriteRoutingDataSource.class.getName() + ".WROTE";
+
+    private static final String PRIMARY_READ_RESOURCE = ReadWriteRoutingDataSource.class.getName() + ".PRIMARY_READ";
+
+    private final DataSource primary;
+
+    private final List<DataSource> replicas;
+
+    private final Balancing balancing;
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<? extends DataSource> replicas, Balancing balancing) {
+        this.primary = primary;
+        this.replicas = new ArrayList<>(replicas);
+        this.balancing = balancing;
+        Map<Object, Object> targetDataSources = new HashMap<>();
+        targetDataSources.put(PRIMARY, primary);
+        for (int i = 0; i < this.replicas.size(); i++) {
+            targetDataSources.put(i, this.replicas.get(i));
+        }
+        setTargetDataSources(targetDataSources);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                markWritten();
+            }
+            return PRIMARY;
+        }
+        if (replicas.isEmpty() || hasWritten() || TransactionSynchronizationManager.hasResource(PRIMARY_READ_RESOURCE)) {
+            return PRIMARY;
+        }
+        int start = Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+        return balancing == Balancing.LEAST_CONNECTIONS ? leastConnectedReplica(start) : start;
+    }
+
+    /**
+     * Sends the current read-only transaction to the primary. Meant for reads that fill a cache: right after an update
+     * a replica may still return the old row, and a cache would go on serving it long after the replica caught up.
+     * Must be called before the transaction's first statement; does nothing outside a transaction.
+     */
+    public static void readFromPrimary() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(PRIMARY_READ_RESOURCE)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(PRIMARY_READ_RESOURCE, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void suspend() {
+                TransactionSynchronizationManager.unbindResource(PRIMARY_READ_RESOURCE);
+            }
+
+            @Override
+            public void resume() {
+                TransactionSynchronizationManager.bindResource(PRIMARY_READ_RESOURCE, Boolean.TRUE);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(PRIMARY_READ_RESOURCE);
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        closeQuietly(primary);
+        replicas.forEach(ReadWriteRoutingDataSource::closeQuietly);
+    }
+
+    /**
+     * The replica with the fewest connections in use. The scan starts at a rotating offset so ties, the common case
+     * under light load, still spread across replicas.
+     */
+    private int leastConnectedReplica(int start) {
+        int best = start;
+        int bestActive = Integer.MAX_VALUE;
+        for (int i = 0; i < replicas.size(); i++) {
+            int index = (start + i) % replicas.size();
+            int active = activeConnections(replicas.get(index));
+            if (active < bestActive) {
+                best = index;
+                bestActive = active;
+            }
+        }
+        return best;
+    }
+
+    private static int activeConnections(DataSource dataSource) {
+        if (dataSource instanceof HikariDataSource) {
+            // Null until the pool has handed out its first connection.
+            HikariPoolMXBean pool = ((HikariDataSource) dataSource).getHikariPoolMXBean();
+            return pool == null ? 0 : pool.getActiveConnections();
+        }
+        return 0;
+    }
+
+    private static void markWritten() {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes != null) {
+            requestAttributes.setAttribute(WROTE_ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    private static boolean hasWritten() {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        return requestAttributes != null
+                && requestAttributes.getAttribute(WROTE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null;
+    }
+
+    private static void closeQuietly(DataSource dataSource) {
+        if (dataSource instanceof HikariDataSource) {
+            ((HikariDataSource) dataSource).close();
+        }
+    }
+}
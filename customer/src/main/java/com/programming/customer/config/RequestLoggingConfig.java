@@ -0,0 +1,37 @@
+package com.programming.customer.config;
+
+import com.programming.customer.util.RequestStats;
+import org.slf4j.MDC;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.Callable;
+
+@Configuration
+public class RequestLoggingConfig implements WebMvcConfigurer {
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        // Streaming exports run on an MVC task thread; carry the request's stats and SQL logging switch over to it.
+        configurer.registerCallableInterceptors(new CallableProcessingInterceptor() {
+            @Override
+            public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+                RequestStats.bind((RequestStats) request.getAttribute(RequestStats.ATTRIBUTE,
+                        RequestAttributes.SCOPE_REQUEST));
+                if (request.getAttribute(SqlLoggingTurboFilter.MDC_KEY, RequestAttributes.SCOPE_REQUEST) != null) {
+                    MDC.put(SqlLoggingTurboFilter.MDC_KEY, "true");
+                }
+            }
+
+            @Override
+            public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object concurrentResult) {
+                RequestStats.unbind();
+                MDC.remove(SqlLoggingTurboFilter.MDC_KEY);
+            }
+        });
+    }
+}
@@ -0,0 +1,170 @@
+package com.programming.customer.config;
+
+import com.programming.customer.util.RequestStats;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Logs one summary line per request (rows, DB time, mapping time, bytes written) in place of per-row log lines, picks
+ * a sample of requests for row-level debug logging and, when allowed, turns on SQL logging for a single request.
+ */
+@Component
+@Slf4j
+public class RequestSummaryFilter extends OncePerRequestFilter {
+
+    public static final String SQL_LOGGING_HEADER = "X-Debug-SQL";
+
+    @Value("${customer.logging.debug-sample-rate}")
+    private double debugSampleRate;
+
+    @Value("${customer.logging.sql-on-demand.enabled}")
+    private boolean sqlOnDemandEnabled;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith(request.getContextPath() + "/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long startNanos = System.nanoTime();
+        RequestStats requestStats = new RequestStats(ThreadLocalRandom.current().nextDouble() < debugSampleRate);
+        boolean sqlLogging = sqlOnDemandEnabled && Boolean.parseBoolean(request.getHeader(SQL_LOGGING_HEADER));
+        request.setAttribute(RequestStats.ATTRIBUTE, requestStats);
+        if (sqlLogging) {
+            request.setAttribute(SqlLoggingTurboFilter.MDC_KEY, Boolean.TRUE);
+        }
+
+        RequestStats.bind(requestStats);
+        if (sqlLogging) {
+            MDC.put(SqlLoggingTurboFilter.MDC_KEY, "true");
+        }
+        try {
+            filterChain.doFilter(request, new CountingResponseWrapper(response, requestStats));
+        } finally {
+            RequestStats.unbind();
+            MDC.remove(SqlLoggingTurboFilter.MDC_KEY);
+        }
+
+        if (request.isAsyncStarted()) {
+            // Streaming bodies finish on another thread; log once the container completes the response.
+            request.getAsyncContext().addListener(new AsyncListener() {
+                @Override
+                public void onComplete(AsyncEvent event) {
+                    logSummary(request, response, requestStats, startNanos);
+                }
+
+                @Override
+                public void onTimeout(AsyncEvent event) {
+                }
+
+                @Override
+                public void onError(AsyncEvent event) {
+                }
+
+                @Override
+                public void onStartAsync(AsyncEvent event) {
+                }
+            });
+        } else {
+            logSummary(request, response, requestStats, startNanos);
+        }
+    }
+
+    private static void logSummary(HttpServletRequest request, HttpServletResponse response, RequestStats requestStats,
+            long startNanos) {
+        if (log.isInfoEnabled()) {
+            log.info("{} {} status={} rows={} dbMs={} mappingMs={} bytes={} totalMs={}", request.getMethod(),
+                    request.getRequestURI(), response.getStatus(), requestStats.getRows(),
+                    toMillis(requestStats.getDbNanos()), toMillis(requestStats.getMappingNanos()),
+                    requestStats.getBytes(), toMillis(System.nanoTime() - startNanos));
+        }
+    }
+
+    private static double toMillis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+
+    /**
+     * Counts bytes written through the output stream, which is what the JSON and NDJSON converters use.
+     */
+    private static final class CountingResponseWrapper extends HttpServletResponseWrapper {
+
+        private final RequestStats requestStats;
+
+        private ServletOutputStream outputStream;
+
+        CountingResponseWrapper(HttpServletResponse response, RequestStats requestStats) {
+            super(response);
+            this.requestStats = requestStats;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new CountingOutputStream(super.getOutputStream(), requestStats);
+            }
+            return outputStream;
+        }
+    }
+
+    private static final class CountingOutputStream extends ServletOutputStream {
+
+        private final ServletOutputStream delegate;
+
+        private final RequestStats requestStats;
+
+        CountingOutputStream(ServletOutputStream delegate, RequestStats requestStats) {
+            this.delegate = delegate;
+            this.requestStats = requestStats;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            requestStats.addBytes(1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+            requestStats.addBytes(len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+}
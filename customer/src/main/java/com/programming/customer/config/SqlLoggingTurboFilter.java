@@ -0,0 +1,30 @@
+package com.programming.customer.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+/**
+ * Lets Hibernate's SQL and bind parameter loggers through for threads that carry {@link #MDC_KEY}, so SQL logging can
+ * be switched on for a single request without lowering the level for everyone. Registered in logback-spring.xml.
+ */
+public class SqlLoggingTurboFilter extends TurboFilter {
+
+    public static final String MDC_KEY = "sqlLogging";
+
+    private static final String SQL_LOGGER = "org.hibernate.SQL";
+
+    private static final String BIND_LOGGER = "org.hibernate.type.descriptor.sql";
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        String loggerName = logger.getName();
+        if ((loggerName.startsWith(SQL_LOGGER) || loggerName.startsWith(BIND_LOGGER)) && MDC.get(MDC_KEY) != null) {
+            return FilterReply.ACCEPT;
+        }
+        return FilterReply.NEUTRAL;
+    }
+}
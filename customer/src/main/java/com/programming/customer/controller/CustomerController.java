@@ -1,10 +1,18 @@
 package com.programming.customer.controller;
 
+import com.programming.customer.dto.CustomerChangesDTO;
 import com.programming.customer.dto.CustomerDTO;
+import com.programming.customer.dto.CustomerPageDTO;
+import com.programming.customer.dto.CustomerValidatorDTO;
 import com.programming.customer.exception.CustomerNotFoundException;
+import com.programming.customer.exception.CustomerVersionConflictException;
+import com.programming.customer.exception.InvalidChangeTokenException;
 import com.programming.customer.service.CustomerService;
+import com.programming.customer.util.CustomerValidators;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -13,9 +21,17 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.Valid;
+import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
+import javax.validation.constraints.Size;
 import java.util.List;
 
 @RestController
@@ -25,12 +41,65 @@ import java.util.List;
 @Validated
 public class CustomerController {
 
+    private static final String DEFAULT_PAGE_SIZE = "100";
+
+    private static final long MAX_PAGE_SIZE = 1000;
+
+    private static final int MAX_BATCH_SIZE = 10000;
+
+    private static final int MAX_IDS_PER_LOOKUP = 1000;
+
+    private static final String DEFAULT_SEARCH_LIMIT = "10";
+
+    private static final long MAX_SEARCH_LIMIT = 100;
+
+    private static final int MAX_QUERY_LENGTH = 100;
+
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+
+    private static final long NO_TIMEOUT = -1;
+
     private final CustomerService customerService;
 
     @GetMapping("/all")
-    public ResponseEntity<List<CustomerDTO>> getAllCustomers(){
-        log.info("Attempting to fetch all customers");
-        return ResponseEntity.ok().body(customerService.findCustomers());
+    public ResponseEntity<CustomerPageDTO> getAllCustomers(
+            @Min (value = 0) @RequestParam(value = "after", defaultValue = "0") Long after,
+            @Min (value = 1) @Max (value = MAX_PAGE_SIZE) @RequestParam(value = "limit", defaultValue = DEFAULT_PAGE_SIZE) Integer limit,
+            HttpServletRequest request){
+        log.info("Attempting to fetch customers after id={}, limit={}", after, limit);
+        ServletWebRequest webRequest = new ServletWebRequest(request);
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null || request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null) {
+            // Revalidate against the page's version columns first so an unchanged page is never loaded or serialized.
+            CustomerValidatorDTO customerValidatorDTO = customerService.findCustomersValidator(after, limit);
+            if (webRequest.checkNotModified(weakETag(customerValidatorDTO), customerValidatorDTO.getLastModified())) {
+                return withValidators(ResponseEntity.status(HttpStatus.NOT_MODIFIED), customerValidatorDTO).build();
+            }
+        }
+        CustomerPageDTO customerPageDTO = customerService.findCustomers(after, limit);
+        return withValidators(ResponseEntity.ok(), CustomerValidators.forPage(after, limit, customerPageDTO))
+                .body(customerPageDTO);
+    }
+
+    // Streamed on an MVC task thread. An export of the whole table may take longer than any async request timeout
+    // that suits the rest of the service, so it runs without one.
+    @GetMapping(value = "/export", produces = NDJSON_VALUE)
+    public WebAsyncTask<Void> exportCustomers(HttpServletResponse response) {
+        log.info("Attempting to export all customers");
+        return new WebAsyncTask<>(NO_TIMEOUT, () -> {
+            response.setContentType(NDJSON_VALUE);
+            customerService.exportCustomers(response.getOutputStream());
+            response.flushBuffer();
+            return null;
+        });
+    }
+
+    @GetMapping("/changes")
+    public ResponseEntity<CustomerChangesDTO> getCustomerChanges(
+            @RequestParam(value = "since", required = false) String since,
+            @Min (value = 1) @Max (value = MAX_PAGE_SIZE) @RequestParam(value = "limit", defaultValue = DEFAULT_PAGE_SIZE) Integer limit)
+            throws InvalidChangeTokenException {
+        log.info("Attempting to fetch customer changes since={}, limit={}", since, limit);
+        return ResponseEntity.ok().body(customerService.findCustomerChanges(since, limit));
     }
 
     @GetMapping("/{id}")
@@ -41,25 +110,63 @@ public class CustomerController {
         if (customerDTOList.isEmpty()) {
             throw new CustomerNotFoundException("Customer not found with id: " + customerId);
         }
-        return ResponseEntity.ok().body(customerDTOList);
+        // The customer usually comes from the cache; a matching If-None-Match or If-Modified-Since then gets a 304
+        // without the body being serialized.
+        return withValidators(ResponseEntity.ok(), CustomerValidators.forCustomer(customerDTOList.get(0)))
+                .body(customerDTOList);
+    }
+
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<CustomerDTO>> findCustomersByIds(
+            @Size(min = 1, max = MAX_IDS_PER_LOOKUP) @RequestParam(value = "ids") List<Long> customerIds) {
+        log.info("Attempting to find {} customers by id.", customerIds.size());
+        return ResponseEntity.ok().body(customerService.findCustomersByIds(customerIds));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<CustomerDTO>> searchCustomers(
+            @Size(min = 1, max = MAX_QUERY_LENGTH) @RequestParam(value = "q") String query,
+            @Min (value = 1) @Max (value = MAX_SEARCH_LIMIT) @RequestParam(value = "limit", defaultValue = DEFAULT_SEARCH_LIMIT) Integer limit) {
+        // Typeahead sends a request per keystroke, so this one is left to the request summary line.
+        log.debug("Attempting to search customers matching '{}', limit={}", query, limit);
+        return ResponseEntity.ok().body(customerService.searchCustomers(query, limit));
     }
 
     @PostMapping("/save")
-    public ResponseEntity<CustomerDTO> saveCustomer(@Validated @RequestBody CustomerDTO customerDTO) {
+    public ResponseEntity<CustomerDTO> saveCustomer(@Validated @RequestBody CustomerDTO customerDTO)
+            throws CustomerNotFoundException, CustomerVersionConflictException {
         log.info("Attempting to save customer.");
         return ResponseEntity.ok().body(customerService.saveCustomer(customerDTO));
     }
 
+    @PostMapping("/save-batch")
+    public ResponseEntity<List<CustomerDTO>> saveCustomers(
+            @Size(max = MAX_BATCH_SIZE) @RequestBody List<@Valid CustomerDTO> customerDTOList) {
+        log.info("Attempting to save batch of {} customers.", customerDTOList.size());
+        return ResponseEntity.ok().body(customerService.saveCustomers(customerDTOList));
+    }
+
     @PutMapping("/update/{id}")
     public ResponseEntity<CustomerDTO> updateCustomer(@Min (value = 1) @PathVariable(value = "id") Long customerId,
             @Validated @RequestBody CustomerDTO customerDTO)
-            throws CustomerNotFoundException {
-        log.info("Attempting to update customer with id={}.", customerDTO.getId());
-        int customerCount = customerService.countCustomerWithId(customerId);
-        if (customerCount == 0) {
-            throw new CustomerNotFoundException("Customer not found with id: " + customerId);
-        }
+            throws CustomerNotFoundException, CustomerVersionConflictException {
+        log.info("Attempting to update customer with id={}, version={}.", customerId, customerDTO.getVersion());
         customerDTO.setId(customerId);
-        return ResponseEntity.ok().body(customerService.saveCustomer(customerDTO));
+        return ResponseEntity.ok().body(customerService.updateCustomer(customerDTO));
+    }
+
+    private static ResponseEntity.BodyBuilder withValidators(ResponseEntity.BodyBuilder builder,
+            CustomerValidatorDTO customerValidatorDTO) {
+        builder.eTag(weakETag(customerValidatorDTO));
+        if (customerValidatorDTO.getLastModified() >= 0) {
+            builder.lastModified(customerValidatorDTO.getLastModified());
+        }
+        return builder;
+    }
+
+    // Weak: the tag names a version of the data, not the bytes, which differ between JSON, Smile and gzip. Tomcat also
+    // leaves responses with a strong ETag uncompressed.
+    private static String weakETag(CustomerValidatorDTO customerValidatorDTO) {
+        return "W/\"" + customerValidatorDTO.getETag() + "\"";
     }
 }
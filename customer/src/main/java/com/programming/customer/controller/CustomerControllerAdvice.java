@@ -2,6 +2,8 @@ package com.programming.customer.controller;
 
 import com.programming.customer.dto.ErrorDTO;
 import com.programming.customer.exception.CustomerNotFoundException;
+import com.programming.customer.exception.CustomerVersionConflictException;
+import com.programming.customer.exception.InvalidChangeTokenException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -21,6 +23,18 @@ public class CustomerControllerAdvice {
         return new ResponseEntity<>(errorDTO, HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(CustomerVersionConflictException.class)
+    public ResponseEntity<ErrorDTO> customerVersionConflictException(CustomerVersionConflictException customerVersionConflictException, WebRequest webRequest) {
+        ErrorDTO errorDTO = new ErrorDTO(new Date(), customerVersionConflictException.getMessage(), webRequest.getDescription(false));
+        return new ResponseEntity<>(errorDTO, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(InvalidChangeTokenException.class)
+    public ResponseEntity<ErrorDTO> invalidChangeTokenException(InvalidChangeTokenException invalidChangeTokenException, WebRequest webRequest) {
+        ErrorDTO errorDTO = new ErrorDTO(new Date(), invalidChangeTokenException.getMessage(), webRequest.getDescription(false));
+        return new ResponseEntity<>(errorDTO, HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorDTO> handleMethodArgumentNotValidException(MethodArgumentNotValidException methodArgumentNotValidException, WebRequest webRequest) {
         ErrorDTO errorDTO = new ErrorDTO(new Date(), methodArgumentNotValidException.getMessage(), webRequest.getDescription(false));
@@ -0,0 +1,27 @@
+package com.programming.customer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor @NoArgsConstructor
+public class CustomerChangesDTO {
+    /**
+     * Customers created or modified after the requested token, oldest change first.
+     */
+    private List<CustomerDTO> customers;
+
+    /**
+     * Token to pass as {@code since} on the next call. Always present; unchanged when there were no new changes.
+     */
+    private String next;
+
+    /**
+     * Whether more changes are already available, so the next call should be made right away rather than on the
+     * polling interval.
+     */
+    private boolean hasMore;
+}
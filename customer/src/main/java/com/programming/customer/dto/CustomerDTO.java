@@ -1,11 +1,13 @@
 package com.programming.customer.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Size;
+import java.util.Date;
 
 @Data
 @AllArgsConstructor @NoArgsConstructor
@@ -21,4 +23,23 @@ public class CustomerDTO {
     @NotBlank(message = "Last Name must not be blank")
     @Size(max = 150, message = "Last Name must not exceed 150 characters")
     private String lastName;
+
+    /**
+     * Optimistic lock version. When sent on update, the update only applies if it still matches.
+     */
+    private Long version;
+
+    /**
+     * Last modification time, used for the Last-Modified validator only and never sent to clients.
+     */
+    @JsonIgnore
+    private Date modifiedDate;
+
+    public CustomerDTO(Long id, String firstName, String middleName, String lastName) {
+        this(id, firstName, middleName, lastName, null);
+    }
+
+    public CustomerDTO(Long id, String firstName, String middleName, String lastName, Long version) {
+        this(id, firstName, middleName, lastName, version, null);
+    }
 }
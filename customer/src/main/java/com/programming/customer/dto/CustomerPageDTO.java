@@ -0,0 +1,18 @@
+package com.programming.customer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor @NoArgsConstructor
+public class CustomerPageDTO {
+    private List<CustomerDTO> customers;
+
+    /**
+     * Cursor to pass as {@code after} to fetch the next page, or null when this is the last page.
+     */
+    private Long next;
+}
@@ -0,0 +1,16 @@
+package com.programming.customer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * HTTP validators for a customer response: a strong entity tag and the last modification time in epoch millis,
+ * or -1 when unknown.
+ */
+@Data
+@AllArgsConstructor
+public class CustomerValidatorDTO {
+    private String eTag;
+
+    private long lastModified;
+}
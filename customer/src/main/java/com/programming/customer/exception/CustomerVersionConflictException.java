@@ -0,0 +1,13 @@
+package com.programming.customer.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.CONFLICT)
+public class CustomerVersionConflictException extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    public CustomerVersionConflictException(String message) {
+        super(message);
+    }
+}
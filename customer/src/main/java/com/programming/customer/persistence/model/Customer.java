@@ -3,25 +3,43 @@ package com.programming.customer.persistence.model;
 import com.programming.customer.audit.Auditable;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.EntityListeners;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.Table;
+import javax.persistence.Version;
 
 @Entity
-@Table(name = "CUSTOMER")
+// Serves the change feed's (MODIFIED_DATETIME, id) range scans.
+@Table(name = "CUSTOMER", indexes = @Index(name = "IX_CUSTOMER_MODIFIED_DATETIME", columnList = "MODIFIED_DATETIME, id"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Customer.CACHE_REGION)
 @Getter
 @Setter
 @EntityListeners(AuditingEntityListener.class)
 public class Customer extends Auditable<String> {
 
+    public static final String CACHE_REGION = "customer";
+
     @Id
-    @GeneratedValue (strategy = GenerationType.SEQUENCE)
+    @GeneratedValue (strategy = GenerationType.SEQUENCE, generator = "customer_seq")
+    @GenericGenerator(name = "customer_seq", strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator", parameters = {
+            @Parameter(name = "sequence_name", value = "CUSTOMER_SEQ"),
+            @Parameter(name = "increment_size", value = "50"),
+            @Parameter(name = "optimizer", value = "pooled-lo")
+    })
     private Long id;
 
     @Column(name = "FIRST_NAME", nullable = false)
@@ -33,4 +51,9 @@ public class Customer extends Auditable<String> {
     @Column(name = "LAST_NAME", nullable = false)
     private String lastName;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "VERSION", nullable = false)
+    private Long version;
+
 }
@@ -0,0 +1,57 @@
+package com.programming.customer.persistence.model;
+
+import com.programming.customer.audit.Auditable;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.Version;
+
+/**
+ * Progress of a CSV import, committed together with each batch of customers, so an interrupted import resumes right
+ * after the last batch that made it into the database. Keyed by file name, size and a fingerprint of the content (see
+ * {@link com.programming.customer.service.CustomerImportService#fileKey}), so a different file under the same name
+ * starts from the beginning.
+ */
+@Entity
+@Table(name = "CUSTOMER_IMPORT")
+@Getter
+@Setter
+@NoArgsConstructor
+@EntityListeners(AuditingEntityListener.class)
+public class CustomerImport extends Auditable<String> {
+
+    @Id
+    @Column(name = "FILE_KEY", length = 300)
+    private String fileKey;
+
+    /**
+     * Byte offset in the file up to which every row has been imported or rejected.
+     */
+    @Column(name = "COMMITTED_OFFSET", nullable = false)
+    private long committedOffset;
+
+    @Column(name = "IMPORTED_COUNT", nullable = false)
+    private long importedCount;
+
+    @Column(name = "REJECTED_COUNT", nullable = false)
+    private long rejectedCount;
+
+    @Column(name = "COMPLETED", nullable = false)
+    private boolean completed;
+
+    // A second import of the same file fails on its next commit instead of importing the same chunks again.
+    @Version
+    @Column(name = "VERSION", nullable = false)
+    private Long version;
+
+    public CustomerImport(String fileKey) {
+        this.fileKey = fileKey;
+    }
+}
@@ -0,0 +1,21 @@
+package com.programming.customer.persistence.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Date;
+
+/**
+ * Read-only projection of the columns that change whenever a customer does. Loaded instead of full entities when only
+ * the validators of a page are needed.
+ */
+@Getter
+@AllArgsConstructor
+public class CustomerVersion {
+
+    private final Long id;
+
+    private final Long version;
+
+    private final Date modifiedDate;
+}
@@ -0,0 +1,9 @@
+package com.programming.customer.persistence.repository;
+
+import com.programming.customer.persistence.model.CustomerImport;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CustomerImportRepository extends CrudRepository<CustomerImport, String> {
+}
@@ -1,17 +1,50 @@
 package com.programming.customer.persistence.repository;
 
 import com.programming.customer.persistence.model.Customer;
+import com.programming.customer.persistence.model.CustomerVersion;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Date;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_MODE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
-public interface CustomerRepository extends CrudRepository<Customer, Long> {
+public interface CustomerRepository extends CrudRepository<Customer, Long>, CustomerRepositoryCustom {
     List<Customer> findAll();
 
-    @Query("SELECT COUNT(1) FROM Customer where id = :customerId")
-    int countCustomerwithId(@Param("customerId") Long customerId);
+    // Scans leave the second-level cache alone: it holds customers looked up by id, which a page, the change feed or an
+    // export would otherwise push out.
+    @QueryHints(@QueryHint(name = HINT_CACHE_MODE, value = "IGNORE"))
+    @Query("SELECT c FROM Customer c WHERE c.id > :after ORDER BY c.id")
+    List<Customer> findCustomersAfter(@Param("after") Long after, Pageable pageable);
+
+    @Query("SELECT new com.programming.customer.persistence.model.CustomerVersion(c.id, c.version, c.modifiedDate) "
+            + "FROM Customer c WHERE c.id > :after ORDER BY c.id")
+    List<CustomerVersion> findCustomerVersionsAfter(@Param("after") Long after, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HINT_CACHE_MODE, value = "IGNORE"))
+    @Query("SELECT c FROM Customer c WHERE c.modifiedDate <= :until AND (c.modifiedDate > :since "
+            + "OR (c.modifiedDate = :since AND c.id > :after)) ORDER BY c.modifiedDate, c.id")
+    List<Customer> findCustomersModifiedAfter(@Param("since") Date since, @Param("after") Long after,
+                                              @Param("until") Date until, Pageable pageable);
+
+    @QueryHints(value = {
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READONLY, value = "true"),
+            @QueryHint(name = HINT_CACHEABLE, value = "false"),
+            @QueryHint(name = HINT_CACHE_MODE, value = "IGNORE")
+    })
+    @Query("SELECT c FROM Customer c ORDER BY c.id")
+    Stream<Customer> streamAll();
 }
@@ -0,0 +1,31 @@
+package com.programming.customer.persistence.repository;
+
+import com.programming.customer.persistence.model.Customer;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Customer operations that need the Hibernate session rather than a query, so they can work with the second-level
+ * cache one customer at a time.
+ */
+public interface CustomerRepositoryCustom {
+
+    /**
+     * Customers with the given ids, ordered by id. Customers held in the second-level cache are served from it and only
+     * the rest are read from the database, all in one statement.
+     */
+    List<Customer> findCustomersByIds(Collection<Long> ids);
+
+    /**
+     * Sets the names and audit columns of a customer and increments its version in one UPDATE, provided the customer
+     * exists and, when a version is given, still has that version. Only this customer is evicted from the
+     * second-level cache.
+     *
+     * @return the customer's new version, or empty if no row was updated
+     */
+    Optional<Long> updateCustomer(Long customerId, String firstName, String middleName, String lastName, Long version,
+                                  Date modifiedDate, String modifiedBy);
+}
@@ -0,0 +1,104 @@
+package com.programming.customer.persistence.repository;
+
+import com.programming.customer.persistence.model.Customer;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+@RequiredArgsConstructor
+class CustomerRepositoryCustomImpl implements CustomerRepositoryCustom {
+
+    private static final String UPDATE_CUSTOMER = "UPDATE CUSTOMER SET FIRST_NAME = ?, MIDDLE_NAME = ?, LAST_NAME = ?, "
+            + "MODIFIED_DATETIME = ?, MODIFIED_BY = ?, VERSION = VERSION + 1 WHERE ID = ?";
+
+    private static final String UPDATE_CUSTOMER_AT_VERSION = UPDATE_CUSTOMER + " AND VERSION = ?";
+
+    private static final String SELECT_VERSION = "SELECT VERSION FROM CUSTOMER WHERE ID = ?";
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<Customer> findCustomersByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Long> sortedIds = new ArrayList<>(new TreeSet<>(ids));
+        // Ordered return leaves a null for each id that does not exist.
+        return entityManager.unwrap(Session.class).byMultipleIds(Customer.class)
+                .with(CacheMode.NORMAL)
+                .enableOrderedReturn(true)
+                .withBatchSize(sortedIds.size())
+                .multiLoad(sortedIds)
+                .stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Optional<Long> updateCustomer(Long customerId, String firstName, String middleName, String lastName,
+                                         Long version, Date modifiedDate, String modifiedBy) {
+        // Plain JDBC on the session's connection, so the UPDATE joins the current transaction. A JPQL or native UPDATE
+        // would make Hibernate clear the whole Customer region rather than this one customer.
+        Optional<Long> newVersion = entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    version == null ? UPDATE_CUSTOMER : UPDATE_CUSTOMER_AT_VERSION)) {
+                statement.setString(1, firstName);
+                statement.setString(2, middleName);
+                statement.setString(3, lastName);
+                statement.setTimestamp(4, new Timestamp(modifiedDate.getTime()));
+                statement.setString(5, modifiedBy);
+                statement.setLong(6, customerId);
+                if (version != null) {
+                    statement.setLong(7, version);
+                }
+                if (statement.executeUpdate() == 0) {
+                    return Optional.empty();
+                }
+            }
+            if (version != null) {
+                return Optional.of(version + 1);
+            }
+            // Without an expected version the new one has to be read back; the row stays locked until commit.
+            try (PreparedStatement statement = connection.prepareStatement(SELECT_VERSION)) {
+                statement.setLong(1, customerId);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    resultSet.next();
+                    return Optional.of(resultSet.getLong(1));
+                }
+            }
+        });
+        if (newVersion.isPresent()) {
+            evict(customerId);
+        }
+        return newVersion;
+    }
+
+    // Evicted again when the transaction ends, in case a concurrent load put the old row back before the commit.
+    private void evict(Long customerId) {
+        entityManager.getEntityManagerFactory().getCache().evict(Customer.class, customerId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    entityManager.getEntityManagerFactory().getCache().evict(Customer.class, customerId);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.programming.customer.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Imports the CSV file named by customer.import.file, if any, on a thread of its own once the application is ready.
+ * A large import runs for hours, so it must not hold up the ready event: the {@link CustomerSearchIndexLoader} indexes
+ * the customers already in the database meanwhile, and every batch of customers is searchable as soon as it commits.
+ * Starting again with the same file resumes an interrupted import and skips a completed one.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CustomerImportRunner {
+
+    private final CustomerImportService customerImportService;
+
+    private final ExecutorService importExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "customer-import");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${customer.import.file}")
+    private String importFile;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!importFile.trim().isEmpty()) {
+            Path file = Paths.get(importFile.trim());
+            importExecutor.execute(() -> importQuietly(file));
+        }
+    }
+
+    // Shutting down interrupts the import; the next start resumes it after the last committed batch.
+    @PreDestroy
+    public void shutdown() {
+        importExecutor.shutdownNow();
+    }
+
+    private void importQuietly(Path file) {
+        try {
+            customerImportService.importFile(file);
+        } catch (InterruptedException e) {
+            log.info("Import of {} stopped; it resumes on the next start.", file);
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Import of {} failed.", file, e);
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package com.programming.customer.service;
+
+import com.programming.customer.dto.CustomerDTO;
+import com.programming.customer.persistence.model.CustomerImport;
+import com.programming.customer.persistence.repository.CustomerImportRepository;
+import com.programming.customer.util.CustomerCsvParser;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import javax.persistence.EntityManager;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk import of customers from a CSV file; see {@link CustomerCsvParser} for the format.
+ * <p>
+ * The file is memory-mapped in chunks of about customer.import.chunk-size bytes, split at line breaks. Chunks are
+ * parsed and validated on customer.import.parser-threads threads, a few ahead of the one being saved, and saved in file
+ * order through {@link CustomerService#saveCustomers}: one transaction per customer.import.rows-per-transaction rows,
+ * in JDBC batches, with the same trimming as any other save. Transactions are kept that short because the change feed
+ * only waits customer.changes.settle-time for a write to commit. Each transaction also records how far the import got
+ * in {@link CustomerImport}, so importing the same file again resumes after the last committed row. Rows that fail the
+ * validation customers sent to the API get are counted and logged instead of saved.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CustomerImportService {
+
+    // Enough to see what is wrong with a file without flooding the log when every row is.
+    private static final int MAX_LOGGED_REJECTIONS = 100;
+
+    private static final int MAX_HEADER_BYTES = 64 * 1024;
+
+    // The fingerprint covers this much from each end of the file: the header, the first rows and the last rows.
+    private static final int FINGERPRINT_BLOCK_BYTES = 64 * 1024;
+
+    private final CustomerService customerService;
+
+    private final CustomerImportRepository customerImportRepository;
+
+    private final Validator validator;
+
+    private final PlatformTransactionManager transactionManager;
+
+    private final EntityManager entityManager;
+
+    @Value("${customer.import.chunk-size}")
+    private String chunkSize;
+
+    @Value("${customer.import.rows-per-transaction}")
+    private int rowsPerTransaction;
+
+    @Value("${customer.import.parser-threads}")
+    private int parserThreads;
+
+    /**
+     * The key the import of this file is tracked under: its name, size and a fingerprint of its first and last blocks,
+     * so another export that happens to have the same name and size is imported as a new file.
+     */
+    public static String fileKey(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return fileKey(file, channel);
+        }
+    }
+
+    public CustomerImport importFile(Path file) throws IOException, InterruptedException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            String fileKey = fileKey(file, channel);
+            CustomerImport customerImport = customerImportRepository.findById(fileKey)
+                    .orElseGet(() -> new CustomerImport(fileKey));
+            if (customerImport.isCompleted()) {
+                log.info("{} was imported already: {} customers imported, {} rows rejected.", file,
+                        customerImport.getImportedCount(), customerImport.getRejectedCount());
+                return customerImport;
+            }
+            long headerEnd = lineEnd(channel, 0, size);
+            CustomerCsvParser parser = CustomerCsvParser.forHeader(readHeader(channel, headerEnd));
+            long start = Math.max(customerImport.getCommittedOffset(), headerEnd);
+            if (start >= size) {
+                return commit(customerImport, new ParsedBatch(size, Collections.emptyList(), 0), true);
+            }
+            if (customerImport.getCommittedOffset() > 0) {
+                log.info("Resuming import of {} at byte {} of {}.", file, start, size);
+            }
+            return importChunks(file, channel, parser, customerImport, start);
+        }
+    }
+
+    private CustomerImport importChunks(Path file, FileChannel channel, CustomerCsvParser parser,
+                                        CustomerImport customerImport, long start)
+            throws IOException, InterruptedException {
+        long size = channel.size();
+        long chunkBytes = DataSize.parse(chunkSize).toBytes();
+        int threads = parserThreads > 0 ? parserThreads : Runtime.getRuntime().availableProcessors();
+        ExecutorService parsers = Executors.newFixedThreadPool(threads);
+        AtomicInteger loggedRejections = new AtomicInteger();
+        Deque<Future<List<ParsedBatch>>> pending = new ArrayDeque<>();
+        long startNanos = System.nanoTime();
+        long importedAtStart = customerImport.getImportedCount();
+        long next = start;
+        try {
+            while (next < size || !pending.isEmpty()) {
+                // Parse ahead to keep every parser busy, but not so far that parsed chunks pile up in memory.
+                while (next < size && pending.size() < threads * 2) {
+                    long chunkStart = next;
+                    long chunkEnd = lineEnd(channel, Math.min(chunkStart + chunkBytes, size) - 1, size);
+                    ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, chunkStart, chunkEnd - chunkStart);
+                    pending.add(parsers.submit(() -> parseChunk(parser, buffer, chunkStart, chunkEnd,
+                            loggedRejections)));
+                    next = chunkEnd;
+                }
+                for (ParsedBatch batch : await(pending.poll())) {
+                    customerImport = commit(customerImport, batch, batch.getEnd() == size);
+                }
+                double seconds = Math.max(System.nanoTime() - startNanos, 1) / 1e9;
+                log.info("Imported {} customers and rejected {} rows of {} ({}%, {} customers/s).",
+                        customerImport.getImportedCount(), customerImport.getRejectedCount(), file,
+                        customerImport.getCommittedOffset() * 100 / size,
+                        (long) ((customerImport.getImportedCount() - importedAtStart) / seconds));
+            }
+        } finally {
+            parsers.shutdownNow();
+        }
+        return customerImport;
+    }
+
+    // Splits the chunk's rows into batches of at most rowsPerTransaction customers, each committed on its own.
+    private List<ParsedBatch> parseChunk(CustomerCsvParser parser, ByteBuffer buffer, long chunkStart, long chunkEnd,
+                                         AtomicInteger loggedRejections) {
+        List<ParsedBatch> batches = new ArrayList<>();
+        List<CustomerDTO> customerDTOList = new ArrayList<>();
+        long rejected = 0;
+        for (CustomerCsvParser.Row row : parser.parse(buffer, chunkStart)) {
+            if (customerDTOList.size() == rowsPerTransaction) {
+                // A full batch ends where the next row starts, which is where a resumed import picks up.
+                batches.add(new ParsedBatch(row.getOffset(), customerDTOList, rejected));
+                customerDTOList = new ArrayList<>();
+                rejected = 0;
+            }
+            String error = row.getError() != null ? row.getError() : violations(row.getCustomerDTO());
+            if (error == null) {
+                customerDTOList.add(row.getCustomerDTO());
+                continue;
+            }
+            rejected++;
+            int logged = loggedRejections.getAndIncrement();
+            if (logged < MAX_LOGGED_REJECTIONS) {
+                log.warn("Rejected the row at byte {}: {}", row.getOffset(), error);
+            } else if (logged == MAX_LOGGED_REJECTIONS) {
+                log.warn("Further rejected rows are counted but not logged.");
+            }
+        }
+        batches.add(new ParsedBatch(chunkEnd, customerDTOList, rejected));
+        return batches;
+    }
+
+    private String violations(CustomerDTO customerDTO) {
+        Set<ConstraintViolation<CustomerDTO>> violations = validator.validate(customerDTO);
+        return violations.isEmpty() ? null : violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private CustomerImport commit(CustomerImport customerImport, ParsedBatch batch, boolean completed) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            // Imported customers are not being looked up yet; caching them would only evict those that are.
+            entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+            customerService.saveCustomers(batch.getCustomerDTOList());
+            customerImport.setCommittedOffset(batch.getEnd());
+            customerImport.setImportedCount(customerImport.getImportedCount() + batch.getCustomerDTOList().size());
+            customerImport.setRejectedCount(customerImport.getRejectedCount() + batch.getRejected());
+            customerImport.setCompleted(completed);
+            return customerImportRepository.save(customerImport);
+        });
+    }
+
+    private static List<ParsedBatch> await(Future<List<ParsedBatch>> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Parsing a chunk failed", e.getCause());
+        }
+    }
+
+    private static String fileKey(Path file, FileChannel channel) throws IOException {
+        long size = channel.size();
+        MessageDigest digest = sha256();
+        ByteBuffer buffer = ByteBuffer.allocate(FINGERPRINT_BLOCK_BYTES);
+        digestBlock(channel, 0, buffer, digest);
+        if (size > FINGERPRINT_BLOCK_BYTES) {
+            digestBlock(channel, Math.max(size - FINGERPRINT_BLOCK_BYTES, FINGERPRINT_BLOCK_BYTES), buffer, digest);
+        }
+        // 64 bits of the digest tell exports apart and keep the key within the FILE_KEY column.
+        StringBuilder fingerprint = new StringBuilder(16);
+        byte[] hash = digest.digest();
+        for (int i = 0; i < 8; i++) {
+            fingerprint.append(String.format("%02x", hash[i]));
+        }
+        return file.getFileName() + ":" + size + ":" + fingerprint;
+    }
+
+    private static void digestBlock(FileChannel channel, long position, ByteBuffer buffer, MessageDigest digest)
+            throws IOException {
+        buffer.clear();
+        while (buffer.hasRemaining() && channel.read(buffer, position + buffer.position()) > 0) {
+            // Read until the block is full or the file ends.
+        }
+        buffer.flip();
+        digest.update(buffer);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    // The offset just past the first line break at or after from, or the file size if there is none.
+    private static long lineEnd(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long position = from;
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static String readHeader(FileChannel channel, long headerEnd) throws IOException {
+        if (headerEnd > MAX_HEADER_BYTES) {
+            throw new IllegalArgumentException("CSV header line is longer than " + MAX_HEADER_BYTES + " bytes");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) headerEnd);
+        while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) > 0) {
+            // Read until the whole header line is in.
+        }
+        return new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static final class ParsedBatch {
+
+        /**
+         * Offset just past the batch's last line.
+         */
+        private final long end;
+
+        private final List<CustomerDTO> customerDTOList;
+
+        private final long rejected;
+    }
+}
@@ -0,0 +1,360 @@
+package com.programming.customer.service;
+
+import com.programming.customer.dto.CustomerDTO;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory index over customer names for typeahead search.
+ * <p>
+ * Each distinct normalized name is a term with the sorted ids of the customers that carry it. Terms sit in a sorted map
+ * for prefix lookups and under their trigrams for substring lookups, so a query only touches matching terms, never
+ * every customer. Matching terms are ranked (exact, then prefix, then substring match; shorter terms first) and ids are
+ * taken from them in that order until the result is full. Query tokens shorter than three characters only match name
+ * prefixes. With several tokens, the most selective one drives the walk and the others are checked per customer.
+ */
+@Component
+public class CustomerSearchIndex {
+
+    private static final int EXACT = 0;
+
+    private static final int PREFIX = 1;
+
+    private static final int SUBSTRING = 2;
+
+    private static final Comparator<TermMatch> RANKING = Comparator.comparingInt((TermMatch match) -> match.kind)
+            .thenComparingInt(match -> match.term.text.length())
+            .thenComparing(match -> match.term.text);
+
+    private final Map<Long, IndexedCustomer> customers = new HashMap<>();
+
+    private final TreeMap<String, Term> terms = new TreeMap<>();
+
+    private final Map<Long, List<Term>> termsByTrigram = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Adds the customer, or replaces what was indexed for it before.
+     */
+    public void index(CustomerDTO customerDTO) {
+        lock.writeLock().lock();
+        try {
+            put(customerDTO);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the customer unless it is already indexed, so a bulk load never overwrites a newer incremental update.
+     */
+    public void indexIfAbsent(CustomerDTO customerDTO) {
+        lock.writeLock().lock();
+        try {
+            if (!customers.containsKey(customerDTO.getId())) {
+                put(customerDTO);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return customers.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} customers with a name matching every whitespace-separated token of the query, best
+     * match first.
+     */
+    public List<CustomerDTO> search(String query, int limit) {
+        String[] tokens = normalize(query).split("\\s+");
+        if (tokens[0].isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<CustomerDTO> customerDTOList = new ArrayList<>();
+            Set<Long> seen = new HashSet<>();
+            if (tokens.length == 1) {
+                // Substring matches rank last, so only look them up when prefix matches cannot fill the result.
+                String token = tokens[0];
+                if (!collect(prefixMatches(token), tokens, 0, limit, seen, customerDTOList) && token.length() >= 3) {
+                    collect(substringMatches(token), tokens, 0, limit, seen, customerDTOList);
+                }
+                return customerDTOList;
+            }
+
+            List<TermMatch> driver = null;
+            int driverIndex = 0;
+            long driverSize = Long.MAX_VALUE;
+            for (int i = 0; i < tokens.length; i++) {
+                String token = tokens[i];
+                List<TermMatch> matches = prefixMatches(token);
+                if (token.length() >= 3) {
+                    matches.addAll(substringMatches(token));
+                }
+                long size = 0;
+                for (TermMatch match : matches) {
+                    size += match.term.ids.size;
+                }
+                if (size < driverSize) {
+                    driver = matches;
+                    driverIndex = i;
+                    driverSize = size;
+                }
+            }
+            collect(driver, tokens, driverIndex, limit, seen, customerDTOList);
+            return customerDTOList;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds customers of the matching terms, best ranked term first, until the result holds {@code limit} customers.
+     * Returns whether it is full.
+     */
+    private boolean collect(List<TermMatch> matches, String[] tokens, int driverIndex, int limit, Set<Long> seen,
+            List<CustomerDTO> customerDTOList) {
+        // Usually only the first few terms are needed; a heap hands those out without ordering the rest.
+        PriorityQueue<TermMatch> rankedMatches = new PriorityQueue<>(RANKING);
+        rankedMatches.addAll(matches);
+        while (!rankedMatches.isEmpty()) {
+            Postings ids = rankedMatches.poll().term.ids;
+            for (int i = 0; i < ids.size; i++) {
+                IndexedCustomer customer = customers.get(ids.ids[i]);
+                if (seen.add(customer.id) && matchesAll(customer, tokens, driverIndex)) {
+                    customerDTOList.add(customer.toCustomerDTO());
+                    if (customerDTOList.size() == limit) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private List<TermMatch> prefixMatches(String token) {
+        List<TermMatch> matches = new ArrayList<>();
+        for (Term term : terms.subMap(token, true, token + Character.MAX_VALUE, false).values()) {
+            matches.add(new TermMatch(term, term.text.length() == token.length() ? EXACT : PREFIX));
+        }
+        return matches;
+    }
+
+    /**
+     * Terms containing the token other than at the start: walks the rarest of the token's trigrams.
+     */
+    private List<TermMatch> substringMatches(String token) {
+        List<Term> candidates = null;
+        for (int i = 0; i + 3 <= token.length(); i++) {
+            List<Term> trigramTerms = termsByTrigram.get(trigram(token, i));
+            if (trigramTerms == null) {
+                return Collections.emptyList();
+            }
+            if (candidates == null || trigramTerms.size() < candidates.size()) {
+                candidates = trigramTerms;
+            }
+        }
+        List<TermMatch> matches = new ArrayList<>();
+        for (Term term : candidates) {
+            if (!term.text.startsWith(token) && term.text.contains(token)) {
+                matches.add(new TermMatch(term, SUBSTRING));
+            }
+        }
+        return matches;
+    }
+
+    private static boolean matchesAll(IndexedCustomer customer, String[] tokens, int driverIndex) {
+        for (int i = 0; i < tokens.length; i++) {
+            String token = tokens[i];
+            if (i != driverIndex && !matches(customer.firstName, token) && !matches(customer.middleName, token)
+                    && !matches(customer.lastName, token)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matches(String name, String token) {
+        return name != null && (token.length() < 3 ? name.startsWith(token) : name.contains(token));
+    }
+
+    private void put(CustomerDTO customerDTO) {
+        IndexedCustomer previous = customers.get(customerDTO.getId());
+        IndexedCustomer customer = new IndexedCustomer(customerDTO);
+        if (previous != null) {
+            for (String name : previous.names()) {
+                removeFromTerm(name, customer.id);
+            }
+        }
+        for (String name : customer.names()) {
+            Term term = terms.get(name);
+            if (term == null) {
+                term = new Term(name);
+                terms.put(name, term);
+                for (Long trigram : term.trigrams()) {
+                    termsByTrigram.computeIfAbsent(trigram, key -> new ArrayList<>()).add(term);
+                }
+            }
+            term.ids.add(customer.id);
+        }
+        customers.put(customer.id, customer);
+    }
+
+    private void removeFromTerm(String name, long id) {
+        Term term = terms.get(name);
+        term.ids.remove(id);
+        if (term.ids.size == 0) {
+            terms.remove(name);
+            for (Long trigram : term.trigrams()) {
+                List<Term> trigramTerms = termsByTrigram.get(trigram);
+                trigramTerms.remove(term);
+                if (trigramTerms.isEmpty()) {
+                    termsByTrigram.remove(trigram);
+                }
+            }
+        }
+    }
+
+    private static long trigram(String text, int offset) {
+        return ((long) text.charAt(offset) << 32) | ((long) text.charAt(offset + 1) << 16) | text.charAt(offset + 2);
+    }
+
+    private static String normalize(String name) {
+        return name == null ? null : name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class IndexedCustomer {
+
+        private final long id;
+
+        private final CustomerDTO customerDTO;
+
+        private final String firstName;
+
+        private final String middleName;
+
+        private final String lastName;
+
+        IndexedCustomer(CustomerDTO customerDTO) {
+            this.id = customerDTO.getId();
+            this.customerDTO = new CustomerDTO(customerDTO.getId(), customerDTO.getFirstName(),
+                    customerDTO.getMiddleName(), customerDTO.getLastName(), customerDTO.getVersion());
+            this.firstName = normalize(customerDTO.getFirstName());
+            this.middleName = normalize(customerDTO.getMiddleName());
+            this.lastName = normalize(customerDTO.getLastName());
+        }
+
+        /**
+         * Distinct non-empty names, so a customer is listed at most once per term.
+         */
+        Set<String> names() {
+            Set<String> names = new HashSet<>();
+            for (String name : new String[]{firstName, middleName, lastName}) {
+                if (name != null && !name.isEmpty()) {
+                    names.add(name);
+                }
+            }
+            return names;
+        }
+
+        CustomerDTO toCustomerDTO() {
+            return new CustomerDTO(customerDTO.getId(), customerDTO.getFirstName(), customerDTO.getMiddleName(),
+                    customerDTO.getLastName(), customerDTO.getVersion());
+        }
+    }
+
+    private static final class Term {
+
+        private final String text;
+
+        private final Postings ids = new Postings();
+
+        Term(String text) {
+            this.text = text;
+        }
+
+        Set<Long> trigrams() {
+            Set<Long> trigrams = new HashSet<>();
+            for (int i = 0; i + 3 <= text.length(); i++) {
+                trigrams.add(trigram(text, i));
+            }
+            return trigrams;
+        }
+    }
+
+    private static final class TermMatch {
+
+        private final Term term;
+
+        private final int kind;
+
+        TermMatch(Term term, int kind) {
+            this.term = term;
+            this.kind = kind;
+        }
+    }
+
+    /**
+     * Sorted, growable id list. Ids come from a sequence, so new customers almost always append at the end.
+     */
+    private static final class Postings {
+
+        private long[] ids = new long[1];
+
+        private int size;
+
+        void add(long id) {
+            if (size == 0 || ids[size - 1] < id) {
+                ensureCapacity();
+                ids[size++] = id;
+                return;
+            }
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                int insertAt = -index - 1;
+                ensureCapacity();
+                System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+                ids[insertAt] = id;
+                size++;
+            }
+        }
+
+        void remove(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+                size--;
+            }
+        }
+
+        private void ensureCapacity() {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, ids.length * 2);
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.programming.customer.service;
+
+import com.programming.customer.persistence.model.Customer;
+import com.programming.customer.persistence.repository.CustomerRepository;
+import com.programming.customer.util.CustomerMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Fills the {@link CustomerSearchIndex} from the database once the application is up. Writes made while the load
+ * runs are indexed by the service directly and are not overwritten.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CustomerSearchIndexLoader {
+
+    private final CustomerRepository customerRepository;
+
+    private final CustomerMapper customerMapper;
+
+    private final CustomerSearchIndex customerSearchIndex;
+
+    private final EntityManager entityManager;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        long startNanos = System.nanoTime();
+        try (Stream<Customer> customerStream = customerRepository.streamAll()) {
+            Iterator<Customer> customerIterator = customerStream.iterator();
+            while (customerIterator.hasNext()) {
+                Customer customer = customerIterator.next();
+                customerSearchIndex.indexIfAbsent(customerMapper.toCustomerDTO(customer));
+                entityManager.detach(customer);
+            }
+        }
+        log.info("Indexed {} customers for search in {} ms.", customerSearchIndex.size(),
+                (System.nanoTime() - startNanos) / 1_000_000);
+    }
+}
@@ -1,16 +1,37 @@
 package com.programming.customer.service;
 
+import com.programming.customer.dto.CustomerChangesDTO;
 import com.programming.customer.dto.CustomerDTO;
+import com.programming.customer.dto.CustomerPageDTO;
+import com.programming.customer.dto.CustomerValidatorDTO;
+import com.programming.customer.exception.CustomerNotFoundException;
+import com.programming.customer.exception.CustomerVersionConflictException;
+import com.programming.customer.exception.InvalidChangeTokenException;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
 import java.util.List;
 
 public interface CustomerService {
 
-    List<CustomerDTO> findCustomers();
+    CustomerPageDTO findCustomers(Long after, int limit);
+
+    CustomerValidatorDTO findCustomersValidator(Long after, int limit);
+
+    void exportCustomers(OutputStream outputStream) throws IOException;
+
+    CustomerChangesDTO findCustomerChanges(String since, int limit) throws InvalidChangeTokenException;
 
     List<CustomerDTO> findCustomerById(Long customerId);
 
-    int countCustomerWithId(Long customerId);
+    List<CustomerDTO> findCustomersByIds(Collection<Long> customerIds);
+
+    CustomerDTO saveCustomer(CustomerDTO customerDTO) throws CustomerNotFoundException, CustomerVersionConflictException;
+
+    List<CustomerDTO> saveCustomers(List<CustomerDTO> customerDTOList);
+
+    CustomerDTO updateCustomer(CustomerDTO customerDTO) throws CustomerNotFoundException, CustomerVersionConflictException;
 
-    CustomerDTO saveCustomer(CustomerDTO customerDTO);
+    List<CustomerDTO> searchCustomers(String query, int limit);
 }
@@ -1,78 +1,315 @@
 package com.programming.customer.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.programming.customer.config.CacheConfig;
+import com.programming.customer.config.ReadWriteRoutingDataSource;
+import com.programming.customer.dto.CustomerChangesDTO;
 import com.programming.customer.dto.CustomerDTO;
+import com.programming.customer.dto.CustomerPageDTO;
+import com.programming.customer.dto.CustomerValidatorDTO;
+import com.programming.customer.exception.CustomerNotFoundException;
+import com.programming.customer.exception.CustomerVersionConflictException;
+import com.programming.customer.exception.InvalidChangeTokenException;
 import com.programming.customer.persistence.model.Customer;
 import com.programming.customer.persistence.repository.CustomerRepository;
-import com.programming.customer.util.DozerMapperUtil;
+import com.programming.customer.util.ChangeTokens;
+import com.programming.customer.util.CustomerMapper;
+import com.programming.customer.util.CustomerNameUtil;
+import com.programming.customer.util.CustomerValidators;
+import com.programming.customer.util.RequestStats;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.TreeSet;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class CustomerServiceImpl implements CustomerService {
 
+    // Keep in step with hibernate.jdbc.batch_size so each flush sends full JDBC batches.
+    private static final int FLUSH_BATCH_SIZE = 500;
+
+    // SQL Server allows at most 2100 parameters per statement, so large id lookups are split into chunks.
+    private static final int IN_CLAUSE_CHUNK_SIZE = 1000;
+
     private final CustomerRepository customerRepository;
 
-    private final DozerMapperUtil dozerMapperUtil;
+    private final CustomerMapper customerMapper;
+
+    private final ObjectMapper objectMapper;
+
+    private final EntityManager entityManager;
+
+    private final CustomerSearchIndex customerSearchIndex;
+
+    private final AuditorAware<String> auditorAware;
+
+    @Value("${customer.changes.settle-time}")
+    private String changesSettleTime;
 
     @Transactional(readOnly = true)
     @Override
-    public List<CustomerDTO> findCustomers() {
-        log.info("Fetching all customers.");
-        List<Customer> customerList = customerRepository.findAll();
+    public CustomerPageDTO findCustomers(Long after, int limit) {
+        log.info("Fetching customers after id={}, limit={}.", after, limit);
+        // Fetch one extra row to know whether another page exists without a separate count query.
+        List<Customer> customerList = customerRepository.findCustomersAfter(after, PageRequest.of(0, limit + 1));
+
+        boolean hasNext = customerList.size() > limit;
+        List<CustomerDTO> customerDTOList = customerMapper.toCustomerDTOList(hasNext ? customerList.subList(0, limit) : customerList);
+        Long next = hasNext ? customerList.get(limit - 1).getId() : null;
+        RequestStats.addRows(customerDTOList.size());
+
+        return new CustomerPageDTO(customerDTOList, next);
+    }
 
-        return customerList.isEmpty() ? new ArrayList<>() :
-                customerList
-                .stream()
-                .map(this::customerToCustomerDTO)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    @Override
+    public CustomerValidatorDTO findCustomersValidator(Long after, int limit) {
+        // Same key range and extra row as findCustomers, but only the columns the validator needs and no mapping.
+        return CustomerValidators.forPageVersions(after, limit,
+                customerRepository.findCustomerVersionsAfter(after, PageRequest.of(0, limit + 1)));
     }
 
+    @Transactional(readOnly = true)
+    @Override
+    public CustomerChangesDTO findCustomerChanges(String since, int limit) throws InvalidChangeTokenException {
+        ChangeTokens.Position position = ChangeTokens.decode(since);
+        // A change stamped just now may belong to a transaction that has not committed yet, or come from a node whose
+        // clock runs ahead. Stopping short of the settle time keeps the token from moving past such rows unseen.
+        Date until = new Date(System.currentTimeMillis() - DurationStyle.detectAndParse(changesSettleTime).toMillis());
+        log.info("Fetching customer changes after modified={}, id={}, limit={}.", position.getModifiedDate().getTime(),
+                position.getId(), limit);
+        List<Customer> customerList = customerRepository.findCustomersModifiedAfter(position.getModifiedDate(),
+                position.getId(), until, PageRequest.of(0, limit + 1));
+
+        boolean hasMore = customerList.size() > limit;
+        List<Customer> changedList = hasMore ? customerList.subList(0, limit) : customerList;
+        if (!changedList.isEmpty()) {
+            Customer last = changedList.get(changedList.size() - 1);
+            position = new ChangeTokens.Position(last.getModifiedDate(), last.getId());
+        }
+        List<CustomerDTO> customerDTOList = customerMapper.toCustomerDTOList(changedList);
+        RequestStats.addRows(customerDTOList.size());
+
+        return new CustomerChangesDTO(customerDTOList, ChangeTokens.encode(position), hasMore);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public void exportCustomers(OutputStream outputStream) throws IOException {
+        log.info("Exporting all customers.");
+        ObjectWriter objectWriter = objectMapper.writerFor(CustomerDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long rowCount = 0;
+        long fetchNanos = 0;
+        long mappingNanos = 0;
+
+        try (JsonGenerator jsonGenerator = objectMapper.getFactory().createGenerator(outputStream)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+             Stream<Customer> customerStream = customerRepository.streamAll()) {
+            Iterator<Customer> customerIterator = customerStream.iterator();
+            // Rows are fetched lazily while iterating, so time spent in the iterator counts as database time.
+            long fetchStart = System.nanoTime();
+            while (customerIterator.hasNext()) {
+                Customer customer = customerIterator.next();
+                long mappingStart = System.nanoTime();
+                fetchNanos += mappingStart - fetchStart;
+                CustomerDTO customerDTO = customerToCustomerDTO(customer);
+                mappingNanos += System.nanoTime() - mappingStart;
+
+                objectWriter.writeValue(jsonGenerator, customerDTO);
+                jsonGenerator.writeRaw('\n');
+                // Detach as we go so the persistence context does not grow with the table.
+                entityManager.detach(customer);
+                rowCount++;
+                fetchStart = System.nanoTime();
+            }
+            fetchNanos += System.nanoTime() - fetchStart;
+        }
+        RequestStats.addRows(rowCount);
+        RequestStats.addDbTime(fetchNanos);
+        RequestStats.addMappingTime(mappingNanos);
+        log.info("Exported {} customers.", rowCount);
+    }
+
+    @Cacheable(cacheNames = CacheConfig.CUSTOMERS_CACHE, key = "#customerId", unless = "#result.isEmpty()")
     @Transactional(readOnly = true)
     @Override
     public List<CustomerDTO> findCustomerById(Long customerId){
         log.info("Fetching customer with id: {}", customerId);
+        // The result is cached until the next update or expiry, so it must not be a replica's stale copy.
+        ReadWriteRoutingDataSource.readFromPrimary();
         Optional<Customer> customer = customerRepository.findById(customerId);
 
+        RequestStats.addRows(customer.isPresent() ? 1 : 0);
         return customer.map(value -> Collections.singletonList(customerToCustomerDTO(value))).orElse(Collections.emptyList());
     }
 
     @Transactional(readOnly = true)
     @Override
-    public int countCustomerWithId(Long customerId) {
-        return customerRepository.countCustomerwithId(customerId);
+    public List<CustomerDTO> findCustomersByIds(Collection<Long> customerIds) {
+        log.info("Fetching {} customers by id.", customerIds.size());
+        // Customers loaded here go into the second-level cache, so they must not be a replica's stale copies.
+        ReadWriteRoutingDataSource.readFromPrimary();
+        List<Long> sortedIds = new ArrayList<>(new TreeSet<>(customerIds));
+        List<CustomerDTO> customerDTOList = new ArrayList<>(sortedIds.size());
+
+        for (int from = 0; from < sortedIds.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+            List<Long> chunk = sortedIds.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, sortedIds.size()));
+            customerDTOList.addAll(customerMapper.toCustomerDTOList(customerRepository.findCustomersByIds(chunk)));
+        }
+        RequestStats.addRows(customerDTOList.size());
+        return customerDTOList;
     }
 
-    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.CUSTOMERS_CACHE, key = "#customerDTO.id", condition = "#customerDTO.id != null")
+    @Transactional(rollbackFor = CustomerVersionConflictException.class)
     @Override
-    public CustomerDTO saveCustomer(CustomerDTO customerDTO){
+    public CustomerDTO saveCustomer(CustomerDTO customerDTO) throws CustomerNotFoundException, CustomerVersionConflictException {
         log.info("Saving customer id={}", customerDTO.getId());
-        trimCustomerName(customerDTO);
-        return customerToCustomerDTO(customerRepository.save(customerDtoToCustomer(customerDTO)));
+        if (customerDTO.getId() != null) {
+            // A save with an id changes an existing customer. Going through the update keeps its version check; saving
+            // the detached entity would persist it when no version is sent and fail with a 500 on a stale one.
+            return applyUpdate(customerDTO);
+        }
+        CustomerNameUtil.trimCustomerName(customerDTO);
+        // A new customer starts at version 0 whatever the client sent.
+        customerDTO.setVersion(null);
+        RequestStats.addRows(1);
+        CustomerDTO savedCustomerDTO = customerToCustomerDTO(customerRepository.save(customerDtoToCustomer(customerDTO)));
+        indexAfterCommit(Collections.singletonList(savedCustomerDTO));
+        return savedCustomerDTO;
+    }
+
+    @Transactional
+    @Override
+    public List<CustomerDTO> saveCustomers(List<CustomerDTO> customerDTOList) {
+        log.info("Saving batch of {} customers.", customerDTOList.size());
+        List<CustomerDTO> savedCustomerDTOList = new ArrayList<>(customerDTOList.size());
+        RequestStats.addRows(customerDTOList.size());
+
+        for (int i = 0; i < customerDTOList.size(); i++) {
+            CustomerDTO customerDTO = customerDTOList.get(i);
+            CustomerNameUtil.trimCustomerName(customerDTO);
+            // Batch saves only create customers, so any incoming id is ignored, and so is the version: Hibernate would
+            // start the new row at it instead of at 0.
+            customerDTO.setId(null);
+            customerDTO.setVersion(null);
+            Customer customer = customerMapper.toCustomer(customerDTO);
+            entityManager.persist(customer);
+            savedCustomerDTOList.add(customerMapper.toCustomerDTO(customer));
+
+            if ((i + 1) % FLUSH_BATCH_SIZE == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        indexAfterCommit(savedCustomerDTOList);
+        return savedCustomerDTOList;
+    }
+
+    @CacheEvict(cacheNames = CacheConfig.CUSTOMERS_CACHE, key = "#customerDTO.id")
+    @Transactional(rollbackFor = CustomerVersionConflictException.class)
+    @Override
+    public CustomerDTO updateCustomer(CustomerDTO customerDTO) throws CustomerNotFoundException, CustomerVersionConflictException {
+        return applyUpdate(customerDTO);
+    }
+
+    @Override
+    public List<CustomerDTO> searchCustomers(String query, int limit) {
+        List<CustomerDTO> customerDTOList = customerSearchIndex.search(query, limit);
+        RequestStats.addRows(customerDTOList.size());
+        return customerDTOList;
+    }
+
+    // Runs in the caller's transaction; both saveCustomer and updateCustomer evict the id from the customers cache.
+    private CustomerDTO applyUpdate(CustomerDTO customerDTO) throws CustomerNotFoundException, CustomerVersionConflictException {
+        log.info("Updating customer id={}, version={}", customerDTO.getId(), customerDTO.getVersion());
+        CustomerNameUtil.trimCustomerName(customerDTO);
+        // A single conditional UPDATE; auditing listeners do not run for it, so the audit columns are set here.
+        Date modifiedDate = new Date();
+        Optional<Long> version = customerRepository.updateCustomer(customerDTO.getId(), customerDTO.getFirstName(),
+                customerDTO.getMiddleName(), customerDTO.getLastName(), customerDTO.getVersion(), modifiedDate,
+                auditorAware.getCurrentAuditor().orElse(null));
+
+        if (!version.isPresent()) {
+            // Only the failure path pays for the extra lookup needed to tell a stale version from a missing row.
+            if (customerDTO.getVersion() != null && customerRepository.existsById(customerDTO.getId())) {
+                throw versionConflict(customerDTO);
+            }
+            throw new CustomerNotFoundException("Customer not found with id: " + customerDTO.getId());
+        }
+        customerDTO.setVersion(version.get());
+        customerDTO.setModifiedDate(modifiedDate);
+        RequestStats.addRows(1);
+        indexAfterCommit(Collections.singletonList(customerDTO));
+        return customerDTO;
+    }
+
+    private static CustomerVersionConflictException versionConflict(CustomerDTO customerDTO) {
+        return new CustomerVersionConflictException("Customer with id: " + customerDTO.getId()
+                + " was modified concurrently, expected version: " + customerDTO.getVersion());
+    }
+
+    // Only committed writes reach the search index; outside a transaction they are indexed right away.
+    private void indexAfterCommit(List<CustomerDTO> customerDTOList) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            indexAll(customerDTOList);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                indexAll(customerDTOList);
+            }
+        });
     }
 
-    private void trimCustomerName(CustomerDTO customerDTO) {
-        customerDTO.setFirstName(customerDTO.getFirstName().trim());
-        customerDTO.setMiddleName(customerDTO.getMiddleName().trim());
-        customerDTO.setLastName(customerDTO.getLastName().trim());
+    private void indexAll(List<CustomerDTO> customerDTOList) {
+        for (CustomerDTO customerDTO : customerDTOList) {
+            if (customerDTO.getId() != null) {
+                customerSearchIndex.index(customerDTO);
+            }
+        }
     }
 
+    // Row-level detail is only logged at DEBUG and only for requests picked by the request summary sampler.
     private CustomerDTO customerToCustomerDTO(Customer customer){
-        log.info("Mapping customer to customer DTO.");
-        return dozerMapperUtil.mapper().map(customer, CustomerDTO.class);
+        if (RequestStats.isSampled() && log.isDebugEnabled()) {
+            log.debug("Mapping customer id={} to customer DTO.", customer.getId());
+        }
+        return customerMapper.toCustomerDTO(customer);
     }
 
     private Customer customerDtoToCustomer(CustomerDTO customerDTO){
-        log.info("Mapping customer DTO to customer.");
-        return dozerMapperUtil.mapper().map(customerDTO, Customer.class);
+        if (RequestStats.isSampled() && log.isDebugEnabled()) {
+            log.debug("Mapping customer DTO id={} to customer.", customerDTO.getId());
+        }
+        return customerMapper.toCustomer(customerDTO);
     }
 }
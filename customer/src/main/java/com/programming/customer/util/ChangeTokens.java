@@ -0,0 +1,57 @@
+package com.programming.customer.util;
+
+import com.programming.customer.exception.InvalidChangeTokenException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Continuation tokens for the change feed. A token is the position of the last change a consumer has seen: its
+ * modification time and customer id. Ordering by both means customers sharing a timestamp are neither skipped nor
+ * returned twice across pages. Clients must treat tokens as opaque.
+ */
+public final class ChangeTokens {
+
+    private static final String PREFIX = "c1:";
+
+    private ChangeTokens() {
+    }
+
+    public static String encode(Position position) {
+        String raw = PREFIX + position.getModifiedDate().getTime() + ":" + position.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Decodes a token, or returns the start of the feed when it is null or empty.
+     */
+    public static Position decode(String token) throws InvalidChangeTokenException {
+        if (token == null || token.isEmpty()) {
+            return new Position(new Date(0), 0L);
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII);
+            if (raw.startsWith(PREFIX)) {
+                String[] parts = raw.substring(PREFIX.length()).split(":");
+                if (parts.length == 2) {
+                    return new Position(new Date(Long.parseLong(parts[0])), Long.parseLong(parts[1]));
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // Not Base64 or not numbers; reported below.
+        }
+        throw new InvalidChangeTokenException("Invalid change token: " + token);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static final class Position {
+
+        private final Date modifiedDate;
+
+        private final Long id;
+    }
+}
@@ -0,0 +1,175 @@
+package com.programming.customer.util;
+
+import com.programming.customer.dto.CustomerDTO;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Parses customer rows from UTF-8 CSV bytes, typically a memory-mapped region of the import file. Lines are scanned in
+ * place and only the name columns are decoded, so the bytes of other columns are never copied.
+ * <p>
+ * Columns are found by header name: first_name and last_name are required, middle_name is optional, anything else is
+ * skipped; case, spaces, underscores and dashes in names do not matter. Quoted fields may contain commas and doubled
+ * quotes but not line breaks, so a region can be split at any line break. Empty fields are read as missing.
+ */
+public final class CustomerCsvParser {
+
+    private static final int FIRST_NAME = 0;
+
+    private static final int MIDDLE_NAME = 1;
+
+    private static final int LAST_NAME = 2;
+
+    private static final int SKIPPED = -1;
+
+    private static final String BYTE_ORDER_MARK = "\uFEFF";
+
+    /**
+     * For each column of the file, the name field it holds or {@link #SKIPPED}.
+     */
+    private final int[] columnFields;
+
+    private CustomerCsvParser(int[] columnFields) {
+        this.columnFields = columnFields;
+    }
+
+    public static CustomerCsvParser forHeader(String headerLine) {
+        String header = headerLine.startsWith(BYTE_ORDER_MARK) ? headerLine.substring(1) : headerLine;
+        String[] columns = header.trim().split(",", -1);
+        int[] columnFields = new int[columns.length];
+        Arrays.fill(columnFields, SKIPPED);
+        boolean[] found = new boolean[3];
+        for (int i = 0; i < columns.length; i++) {
+            int field = field(columns[i].replace("\"", "").replaceAll("[\\s_-]", "").toLowerCase(Locale.ROOT));
+            if (field != SKIPPED && !found[field]) {
+                columnFields[i] = field;
+                found[field] = true;
+            }
+        }
+        if (!found[FIRST_NAME] || !found[LAST_NAME]) {
+            throw new IllegalArgumentException("CSV header must name first_name and last_name columns, found: "
+                    + header.trim());
+        }
+        return new CustomerCsvParser(columnFields);
+    }
+
+    /**
+     * Parses every line of the buffer, from its position to its limit, leaving the buffer itself untouched. Blank lines
+     * are skipped. {@code fileOffset} is the offset of the buffer's position in the file, used to report where each
+     * row starts.
+     */
+    public List<Row> parse(ByteBuffer buffer, long fileOffset) {
+        List<Row> rows = new ArrayList<>();
+        byte[] scratch = new byte[256];
+        int base = buffer.position();
+        int limit = buffer.limit();
+        int lineStart = base;
+        while (lineStart < limit) {
+            int lineEnd = lineStart;
+            while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            int next = lineEnd + 1;
+            if (lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r') {
+                lineEnd--;
+            }
+            if (lineEnd > lineStart) {
+                if (scratch.length < lineEnd - lineStart) {
+                    scratch = new byte[lineEnd - lineStart];
+                }
+                rows.add(parseLine(buffer, lineStart, lineEnd, fileOffset + lineStart - base, scratch));
+            }
+            lineStart = next;
+        }
+        return rows;
+    }
+
+    private Row parseLine(ByteBuffer buffer, int start, int end, long offset, byte[] scratch) {
+        String[] names = new String[3];
+        int column = 0;
+        int pos = start;
+        while (true) {
+            int field = column < columnFields.length ? columnFields[column] : SKIPPED;
+            int length = 0;
+            if (pos < end && buffer.get(pos) == '"') {
+                pos++;
+                boolean closed = false;
+                while (pos < end) {
+                    byte b = buffer.get(pos++);
+                    if (b == '"') {
+                        if (pos < end && buffer.get(pos) == '"') {
+                            pos++;
+                        } else {
+                            closed = true;
+                            break;
+                        }
+                    }
+                    if (field != SKIPPED) {
+                        scratch[length] = b;
+                    }
+                    length++;
+                }
+                if (!closed) {
+                    return new Row(offset, null, "unterminated quoted field in column " + (column + 1));
+                }
+                if (pos < end && buffer.get(pos) != ',') {
+                    return new Row(offset, null, "unexpected character after quoted field in column " + (column + 1));
+                }
+            } else {
+                while (pos < end && buffer.get(pos) != ',') {
+                    if (field != SKIPPED) {
+                        scratch[length] = buffer.get(pos);
+                    }
+                    length++;
+                    pos++;
+                }
+            }
+            if (field != SKIPPED && length > 0) {
+                names[field] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+            }
+            if (pos >= end) {
+                break;
+            }
+            pos++;
+            column++;
+        }
+        return new Row(offset, new CustomerDTO(null, names[FIRST_NAME], names[MIDDLE_NAME], names[LAST_NAME]), null);
+    }
+
+    private static int field(String columnName) {
+        switch (columnName) {
+            case "firstname":
+                return FIRST_NAME;
+            case "middlename":
+                return MIDDLE_NAME;
+            case "lastname":
+                return LAST_NAME;
+            default:
+                return SKIPPED;
+        }
+    }
+
+    /**
+     * A parsed line: the customer it holds, or why it could not be read.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static final class Row {
+
+        /**
+         * Byte offset of the line in the file.
+         */
+        private final long offset;
+
+        private final CustomerDTO customerDTO;
+
+        private final String error;
+    }
+}
@@ -0,0 +1,39 @@
+package com.programming.customer.util;
+
+import com.programming.customer.dto.CustomerDTO;
+import com.programming.customer.persistence.model.Customer;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hand-written mapper between {@link Customer} and {@link CustomerDTO}.
+ * Copies fields directly instead of relying on reflection, so it is safe to call once per row on large listings.
+ */
+@Component
+public class CustomerMapper {
+
+    public CustomerDTO toCustomerDTO(Customer customer) {
+        return new CustomerDTO(customer.getId(), customer.getFirstName(), customer.getMiddleName(), customer.getLastName(),
+                customer.getVersion(), customer.getModifiedDate());
+    }
+
+    public Customer toCustomer(CustomerDTO customerDTO) {
+        Customer customer = new Customer();
+        customer.setId(customerDTO.getId());
+        customer.setFirstName(customerDTO.getFirstName());
+        customer.setMiddleName(customerDTO.getMiddleName());
+        customer.setLastName(customerDTO.getLastName());
+        customer.setVersion(customerDTO.getVersion());
+        return customer;
+    }
+
+    public List<CustomerDTO> toCustomerDTOList(List<Customer> customerList) {
+        List<CustomerDTO> customerDTOList = new ArrayList<>(customerList.size());
+        for (Customer customer : customerList) {
+            customerDTOList.add(toCustomerDTO(customer));
+        }
+        return customerDTOList;
+    }
+}
@@ -0,0 +1,17 @@
+package com.programming.customer.util;
+
+import com.programming.customer.dto.CustomerDTO;
+
+public final class CustomerNameUtil {
+
+    private CustomerNameUtil() {
+    }
+
+    public static void trimCustomerName(CustomerDTO customerDTO) {
+        customerDTO.setFirstName(customerDTO.getFirstName().trim());
+        if (customerDTO.getMiddleName() != null) {
+            customerDTO.setMiddleName(customerDTO.getMiddleName().trim());
+        }
+        customerDTO.setLastName(customerDTO.getLastName().trim());
+    }
+}
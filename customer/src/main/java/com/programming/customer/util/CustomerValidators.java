@@ -0,0 +1,72 @@
+package com.programming.customer.util;
+
+import com.programming.customer.dto.CustomerDTO;
+import com.programming.customer.dto.CustomerPageDTO;
+import com.programming.customer.dto.CustomerValidatorDTO;
+import com.programming.customer.persistence.model.CustomerVersion;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Builds the ETag and Last-Modified validators for customer responses. A customer's tag is its id and version. Versions
+ * only go up, so a page's tag is its bounds plus the row count, last id and version sum of its rows, any of which
+ * changes when a row on the page is inserted or updated.
+ */
+public final class CustomerValidators {
+
+    private CustomerValidators() {
+    }
+
+    public static CustomerValidatorDTO forCustomer(CustomerDTO customerDTO) {
+        return new CustomerValidatorDTO(customerDTO.getId() + "." + customerDTO.getVersion(),
+                toMillis(customerDTO.getModifiedDate()));
+    }
+
+    public static CustomerValidatorDTO forPage(Long after, int limit, CustomerPageDTO customerPageDTO) {
+        PageValidator pageValidator = new PageValidator();
+        for (CustomerDTO customerDTO : customerPageDTO.getCustomers()) {
+            pageValidator.add(customerDTO.getId(), customerDTO.getVersion(), customerDTO.getModifiedDate());
+        }
+        return pageValidator.toValidator(after, limit, customerPageDTO.getNext() != null);
+    }
+
+    /**
+     * Same validator as {@link #forPage} from the page's projected rows, fetched with one extra row to tell whether
+     * there is a next page.
+     */
+    public static CustomerValidatorDTO forPageVersions(Long after, int limit, List<CustomerVersion> customerVersionList) {
+        PageValidator pageValidator = new PageValidator();
+        for (CustomerVersion customerVersion : customerVersionList.subList(0, Math.min(limit, customerVersionList.size()))) {
+            pageValidator.add(customerVersion.getId(), customerVersion.getVersion(), customerVersion.getModifiedDate());
+        }
+        return pageValidator.toValidator(after, limit, customerVersionList.size() > limit);
+    }
+
+    private static long toMillis(Date date) {
+        return date == null ? -1 : date.getTime();
+    }
+
+    private static final class PageValidator {
+
+        private long count;
+
+        private Long lastId;
+
+        private long versionSum;
+
+        private long lastModified = -1;
+
+        void add(Long id, Long version, Date modifiedDate) {
+            count++;
+            lastId = id;
+            versionSum += version == null ? 0 : version;
+            lastModified = Math.max(lastModified, toMillis(modifiedDate));
+        }
+
+        CustomerValidatorDTO toValidator(Long after, int limit, boolean hasNext) {
+            return new CustomerValidatorDTO("p" + after + "." + limit + "." + count + "." + lastId + "." + versionSum
+                    + (hasNext ? ".n" : ""), lastModified);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.programming.customer.util;
+
+/**
+ * Per-request counters behind the one-line request summary. The instance is bound to the thread serving the request;
+ * the static helpers are no-ops when nothing is bound, so callers outside a web request need not check.
+ */
+public final class RequestStats {
+
+    public static final String ATTRIBUTE = RequestStats.class.getName();
+
+    private static final ThreadLocal<RequestStats> CURRENT = new ThreadLocal<>();
+
+    private final boolean sampled;
+
+    private long rows;
+
+    private long dbNanos;
+
+    private long mappingNanos;
+
+    private long bytes;
+
+    public RequestStats(boolean sampled) {
+        this.sampled = sampled;
+    }
+
+    public static void bind(RequestStats requestStats) {
+        CURRENT.set(requestStats);
+    }
+
+    public static void unbind() {
+        CURRENT.remove();
+    }
+
+    public static RequestStats current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Whether this request was picked for row-level debug logging.
+     */
+    public static boolean isSampled() {
+        RequestStats requestStats = CURRENT.get();
+        return requestStats != null && requestStats.sampled;
+    }
+
+    public static void addRows(long rows) {
+        RequestStats requestStats = CURRENT.get();
+        if (requestStats != null) {
+            requestStats.rows += rows;
+        }
+    }
+
+    public static void addDbTime(long nanos) {
+        RequestStats requestStats = CURRENT.get();
+        if (requestStats != null) {
+            requestStats.dbNanos += nanos;
+        }
+    }
+
+    public static void addMappingTime(long nanos) {
+        RequestStats requestStats = CURRENT.get();
+        if (requestStats != null) {
+            requestStats.mappingNanos += nanos;
+        }
+    }
+
+    public void addBytes(long bytes) {
+        this.bytes += bytes;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getDbNanos() {
+        return dbNanos;
+    }
+
+    public long getMappingNanos() {
+        return mappingNanos;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+}
@@ -0,0 +1,6 @@
+-- The change feed reads customers by (MODIFIED_DATETIME, id). New and updated rows always get MODIFIED_DATETIME;
+-- run this once on a database with older rows so they show up in the feed, and to add the index where ddl-auto
+-- does not manage the schema.
+UPDATE CUSTOMER SET MODIFIED_DATETIME = CREATED_DATETIME WHERE MODIFIED_DATETIME IS NULL;
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_CUSTOMER_MODIFIED_DATETIME' AND object_id = OBJECT_ID('CUSTOMER'))
+    CREATE INDEX IX_CUSTOMER_MODIFIED_DATETIME ON CUSTOMER (MODIFIED_DATETIME, id);
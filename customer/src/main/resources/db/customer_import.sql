@@ -0,0 +1,15 @@
+-- Progress of CSV imports, one row per imported file. ddl-auto creates the table; run this once where it does not
+-- manage the schema.
+IF OBJECT_ID('CUSTOMER_IMPORT') IS NULL
+    CREATE TABLE CUSTOMER_IMPORT (
+        FILE_KEY VARCHAR(300) NOT NULL PRIMARY KEY,
+        COMMITTED_OFFSET BIGINT NOT NULL,
+        IMPORTED_COUNT BIGINT NOT NULL,
+        REJECTED_COUNT BIGINT NOT NULL,
+        COMPLETED BIT NOT NULL,
+        VERSION BIGINT NOT NULL,
+        CREATED_DATETIME DATETIME2 NOT NULL,
+        CREATED_BY VARCHAR(255) NOT NULL,
+        MODIFIED_DATETIME DATETIME2,
+        MODIFIED_BY VARCHAR(255)
+    );
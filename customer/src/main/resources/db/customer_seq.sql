@@ -0,0 +1,5 @@
+-- Customer ids come from CUSTOMER_SEQ with a pooled-lo optimizer (allocation size 50).
+-- ddl-auto creates the sequence starting at 1 on an empty database. On a database that
+-- already has customers, run this once before deploying so new ids start past the existing ones.
+DECLARE @start BIGINT = (SELECT ISNULL(MAX(id), 0) + 1 FROM CUSTOMER);
+EXEC('CREATE SEQUENCE CUSTOMER_SEQ START WITH ' + CAST(@start AS VARCHAR(20)) + ' INCREMENT BY 50');
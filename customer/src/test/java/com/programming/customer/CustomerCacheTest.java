@@ -0,0 +1,94 @@
+package com.programming.customer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.programming.customer.config.CacheConfig;
+import com.programming.customer.dto.CustomerDTO;
+import com.programming.customer.persistence.model.Customer;
+import com.programming.customer.persistence.repository.CustomerRepository;
+import com.programming.customer.service.CustomerSearchIndex;
+import com.programming.customer.service.CustomerService;
+import com.programming.customer.service.CustomerServiceImpl;
+import com.programming.customer.util.CustomerMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import javax.persistence.EntityManager;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringJUnitConfig(classes = {CacheConfig.class, CustomerServiceImpl.class, CustomerMapper.class,
+        CustomerSearchIndex.class, ObjectMapper.class})
+@TestPropertySource(properties = {"customer.cache.maximum-size=10", "customer.cache.expire-after-write=1m",
+        "customer.changes.settle-time=5s"})
+class CustomerCacheTest {
+
+    @MockBean
+    private CustomerRepository customerRepository;
+
+    @MockBean
+    private EntityManager entityManager;
+
+    @MockBean
+    private AuditorAware<String> auditorAware;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Test
+    void FindCustomerById_RepeatedLookup_ServedFromCache() {
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(customer(1L, "John")));
+
+        customerService.findCustomerById(1L);
+        List<CustomerDTO> customerDTOList = customerService.findCustomerById(1L);
+
+        assertThat(customerDTOList.get(0).getFirstName()).isEqualTo("John");
+        verify(customerRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void FindCustomerById_NonExisting_NotCached() {
+        when(customerRepository.findById(8L)).thenReturn(Optional.empty());
+
+        customerService.findCustomerById(8L);
+        customerService.findCustomerById(8L);
+
+        verify(customerRepository, times(2)).findById(8L);
+    }
+
+    @Test
+    void UpdateCustomer_CachedCustomer_Evicted() throws Exception {
+        when(customerRepository.findById(2L))
+                .thenReturn(Optional.of(customer(2L, "John")), Optional.of(customer(2L, "Johnny")));
+        when(customerRepository.updateCustomer(eq(2L), any(), any(), any(), any(), any(Date.class), any()))
+                .thenReturn(Optional.of(1L));
+
+        customerService.findCustomerById(2L);
+        customerService.updateCustomer(new CustomerDTO(2L, "Johnny", "Smith", "Doe"));
+        List<CustomerDTO> customerDTOList = customerService.findCustomerById(2L);
+
+        assertThat(customerDTOList.get(0).getFirstName()).isEqualTo("Johnny");
+        // The first lookup and the lookup after eviction.
+        verify(customerRepository, times(2)).findById(2L);
+    }
+
+    private Customer customer(Long id, String firstName) {
+        Customer customer = new Customer();
+        customer.setId(id);
+        customer.setFirstName(firstName);
+        customer.setMiddleName("Smith");
+        customer.setLastName("Doe");
+        return customer;
+    }
+}
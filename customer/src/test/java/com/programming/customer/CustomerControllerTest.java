@@ -1,9 +1,14 @@
 package com.programming.customer;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.programming.customer.config.WireFormatConfig;
 import com.programming.customer.controller.CustomerController;
 import com.programming.customer.dto.CustomerDTO;
+import com.programming.customer.dto.CustomerPageDTO;
+import com.programming.customer.dto.CustomerValidatorDTO;
 import com.programming.customer.exception.CustomerNotFoundException;
+import com.programming.customer.exception.CustomerVersionConflictException;
+import com.programming.customer.exception.InvalidChangeTokenException;
 import com.programming.customer.service.CustomerService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,22 +16,40 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.io.OutputStream;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
@@ -51,13 +74,74 @@ class CustomerControllerTest {
 
     @Test
     void GetAllCustomers_Success() throws Exception {
-        when(customerService.findCustomers()).thenReturn(Collections.emptyList());
+        when(customerService.findCustomers(0L, 100)).thenReturn(new CustomerPageDTO(Collections.emptyList(), null));
 
         mockMvc.perform(get("/api/customer/all"))
                 .andExpect(status().isOk());
 
-        ResponseEntity<List<CustomerDTO>> responseEntity = customerController.getAllCustomers();
+        ResponseEntity<CustomerPageDTO> responseEntity = customerController.getAllCustomers(0L, 100,
+                new MockHttpServletRequest());
         assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(responseEntity.getHeaders().getETag()).isNotNull();
+    }
+
+    @Test
+    void GetAllCustomers_AfterAndLimit_Success() throws Exception {
+        CustomerPageDTO customerPageDTO = new CustomerPageDTO(
+                Collections.singletonList(new CustomerDTO(11L, "John", "Smith", "Doe")), 11L);
+        when(customerService.findCustomers(10L, 1)).thenReturn(customerPageDTO);
+
+        mockMvc.perform(get("/api/customer/all")
+                .param("after", "10")
+                .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.next").value(11));
+    }
+
+    @Test
+    void GetAllCustomers_MatchingIfNoneMatch_NotModifiedWithoutLoadingPage() throws Exception {
+        when(customerService.findCustomersValidator(0L, 100)).thenReturn(new CustomerValidatorDTO("p0.100.1.1.0", -1));
+
+        mockMvc.perform(get("/api/customer/all").header(HttpHeaders.IF_NONE_MATCH, "\"p0.100.1.1.0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"p0.100.1.1.0\""))
+                .andExpect(content().string(""));
+        verify(customerService, never()).findCustomers(any(), anyInt());
+    }
+
+    @Test
+    void GetAllCustomers_StaleIfNoneMatch_ReturnsPageWithNewETag() throws Exception {
+        CustomerDTO customerDTO = new CustomerDTO(1L, "John", "Smith", "Doe", 2L);
+        when(customerService.findCustomersValidator(0L, 100)).thenReturn(new CustomerValidatorDTO("p0.100.1.1.2", -1));
+        when(customerService.findCustomers(0L, 100)).thenReturn(
+                new CustomerPageDTO(Collections.singletonList(customerDTO), null));
+
+        mockMvc.perform(get("/api/customer/all").header(HttpHeaders.IF_NONE_MATCH, "\"p0.100.1.1.1\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"p0.100.1.1.2\""))
+                .andExpect(jsonPath("$.customers[0].version").value(2));
+    }
+
+    @Test
+    void ExportCustomers_Success() throws Exception {
+        MvcResult mvcResult = mockMvc.perform(get("/api/customer/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // Only the export runs without an async timeout; everything else keeps the default.
+        assertThat(mvcResult.getRequest().getAsyncContext().getTimeout()).isEqualTo(-1);
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"));
+        verify(customerService).exportCustomers(any(OutputStream.class));
+    }
+
+    @Test
+    void GetCustomerChanges_InvalidToken_BadRequest() throws Exception {
+        when(customerService.findCustomerChanges("bogus", 100)).thenThrow(new InvalidChangeTokenException("Invalid change token: bogus"));
+
+        mockMvc.perform(get("/api/customer/changes").param("since", "bogus"))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -73,6 +157,43 @@ class CustomerControllerTest {
         assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
     }
 
+    @Test
+    void GetCustomerById_MatchingIfNoneMatch_NotModified() throws Exception {
+        CustomerDTO customerDTO = new CustomerDTO(1L, "John", "Smith", "Doe", 3L);
+        customerDTO.setModifiedDate(new Date(1_600_000_000_000L));
+        when(customerService.findCustomerById(1L)).thenReturn(Collections.singletonList(customerDTO));
+
+        mockMvc.perform(get("/api/customer/{id}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"1.3\""))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(jsonPath("$[0].modifiedDate").doesNotExist());
+        mockMvc.perform(get("/api/customer/{id}", 1L).header(HttpHeaders.IF_NONE_MATCH, "W/\"1.3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void GetCustomersByIds_SmileAccepted_RespondsInSmile() throws Exception {
+        MappingJackson2SmileHttpMessageConverter smileConverter = new WireFormatConfig()
+                .smileHttpMessageConverter(Jackson2ObjectMapperBuilder.json());
+        mockMvc = MockMvcBuilders.standaloneSetup(customerController)
+                .setMessageConverters(new MappingJackson2HttpMessageConverter(), smileConverter)
+                .build();
+        when(customerService.findCustomersByIds(Collections.singletonList(1L))).thenReturn(Collections.singletonList(
+                new CustomerDTO(1L, "John", "Smith", "Doe", 0L)));
+
+        MvcResult mvcResult = mockMvc.perform(get("/api/customer").param("ids", "1")
+                .accept(MediaType.valueOf("application/x-jackson-smile"), MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andReturn();
+
+        CustomerDTO[] customerDTOs = smileConverter.getObjectMapper()
+                .readValue(mvcResult.getResponse().getContentAsByteArray(), CustomerDTO[].class);
+        assertThat(customerDTOs).containsExactly(new CustomerDTO(1L, "John", "Smith", "Doe", 0L));
+    }
+
     @Test
     void GetCustomerById_NonExisting_ThrowException() throws Exception {
         Exception exception = assertThrows(CustomerNotFoundException.class,
@@ -83,6 +204,28 @@ class CustomerControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void SearchCustomers_Success() throws Exception {
+        when(customerService.searchCustomers("jo", 5)).thenReturn(Collections.singletonList(
+                new CustomerDTO(1L, "John", "Smith", "Doe")));
+
+        mockMvc.perform(get("/api/customer/search").param("q", "jo").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].firstName").value("John"));
+    }
+
+    @Test
+    void GetCustomersByIds_Success() throws Exception {
+        when(customerService.findCustomersByIds(Arrays.asList(1L, 2L))).thenReturn(Arrays.asList(
+                new CustomerDTO(1L, "John", "Smith", "Doe"), new CustomerDTO(2L, "Jane", "Smith", "Doe")));
+
+        mockMvc.perform(get("/api/customer").param("ids", "1,2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].id").value(2));
+    }
+
     @Test
     void SaveCustomer_Valid_Success() throws Exception {
         CustomerDTO customerDTO = new CustomerDTO(null, "John", "Smith", "Doe");
@@ -98,13 +241,40 @@ class CustomerControllerTest {
         assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
     }
 
+    @Test
+    void SaveCustomer_StaleVersion_Conflict() throws Exception {
+        CustomerDTO customerDTO = new CustomerDTO(1L, "John", "Smith", "Doe", 3L);
+
+        when(customerService.saveCustomer(customerDTO))
+                .thenThrow(new CustomerVersionConflictException("Customer with id: 1 was modified concurrently"));
+
+        mockMvc.perform(post("/api/customer/save")
+                .contentType("application/json")
+                .content(objectMapper.writeValueAsString(customerDTO)))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void SaveCustomers_Valid_Success() throws Exception {
+        List<CustomerDTO> customerDTOList = Arrays.asList(
+                new CustomerDTO(null, "John", "Smith", "Doe"),
+                new CustomerDTO(null, "Jane", null, "Doe"));
+
+        when(customerService.saveCustomers(customerDTOList)).thenReturn(customerDTOList);
+
+        mockMvc.perform(post("/api/customer/save-batch")
+                .contentType("application/json")
+                .content(objectMapper.writeValueAsString(customerDTOList)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
     @Test
     void UpdateCustomer_Valid_Success() throws Exception {
         CustomerDTO customerDTO = new CustomerDTO(1L, "John", "Smith", "Doe");
         Long customerId = customerDTO.getId();
 
-        when(customerService.countCustomerWithId(1L)).thenReturn(1);
-        when(customerService.saveCustomer(customerDTO)).thenReturn(customerDTO);
+        when(customerService.updateCustomer(customerDTO)).thenReturn(customerDTO);
 
         mockMvc.perform(put("/api/customer/update/{id}", customerId)
                 .contentType("application/json")
@@ -162,6 +332,19 @@ class CustomerControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void UpdateCustomer_StaleVersion_Conflict() throws Exception {
+        CustomerDTO customerDTO = new CustomerDTO(1L, "John", "Smith", "Doe", 3L);
+
+        when(customerService.updateCustomer(customerDTO))
+                .thenThrow(new CustomerVersionConflictException("Customer with id: 1 was modified concurrently"));
+
+        mockMvc.perform(put("/api/customer/update/{id}", customerDTO.getId())
+                .contentType("application/json")
+                .content(objectMapper.writeValueAsString(customerDTO)))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     void UpdateCustomer_FirstNameBlank_BadRequest() throws Exception {
         CustomerDTO customerDTO = new CustomerDTO(1L, "", "Smith", "Doe");
@@ -214,7 +397,8 @@ class CustomerControllerTest {
         CustomerDTO customerDTO = new CustomerDTO(100L, "John", "Smith", "Doe");
         Long customerId = customerDTO.getId();
 
-        when(customerService.countCustomerWithId(100L)).thenReturn(0);
+        when(customerService.updateCustomer(customerDTO))
+                .thenThrow(new CustomerNotFoundException("Customer not found with id: " + customerId));
 
         Exception exception = assertThrows(CustomerNotFoundException.class,
                 () -> customerController.updateCustomer(customerId, customerDTO));
@@ -0,0 +1,88 @@
+package com.programming.customer;
+
+import com.programming.customer.dto.CustomerDTO;
+import com.programming.customer.util.CustomerCsvParser;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CustomerCsvParserTest {
+
+    @Test
+    void Parse_HeaderColumnsInAnyOrder_MappedByName() {
+        CustomerCsvParser parser = CustomerCsvParser.forHeader("\uFEFFid,Last Name,email,\"FIRST_NAME\",middle-name\n");
+
+        List<CustomerCsvParser.Row> rows = parser.parse(bytes("7,Lee,ann@example.com,Ann,Marie\n"), 0);
+
+        assertThat(rows).hasSize(1);
+        assertCustomer(rows.get(0).getCustomerDTO(), "Ann", "Marie", "Lee");
+    }
+
+    @Test
+    void Parse_QuotedFields_CommasAndDoubledQuotesKept() {
+        CustomerCsvParser parser = CustomerCsvParser.forHeader("first_name,middle_name,last_name");
+
+        List<CustomerCsvParser.Row> rows = parser.parse(bytes("\"Smith, Jr.\",\"\",\"O\"\"Brien\"\n"), 0);
+
+        assertThat(rows.get(0).getError()).isNull();
+        assertCustomer(rows.get(0).getCustomerDTO(), "Smith, Jr.", null, "O\"Brien");
+    }
+
+    @Test
+    void Parse_EmptyFieldsCrlfAndBlankLines_EmptyReadAsMissing() {
+        CustomerCsvParser parser = CustomerCsvParser.forHeader("first_name,middle_name,last_name");
+
+        List<CustomerCsvParser.Row> rows = parser.parse(bytes(" Ann ,,Lee\r\n\r\n,,Doe\r\nBob"), 0);
+
+        assertThat(rows).hasSize(3);
+        assertCustomer(rows.get(0).getCustomerDTO(), " Ann ", null, "Lee");
+        assertCustomer(rows.get(1).getCustomerDTO(), null, null, "Doe");
+        assertCustomer(rows.get(2).getCustomerDTO(), "Bob", null, null);
+    }
+
+    @Test
+    void Parse_MalformedQuotes_RowRejectedOthersParsed() {
+        CustomerCsvParser parser = CustomerCsvParser.forHeader("first_name,last_name");
+
+        List<CustomerCsvParser.Row> rows = parser.parse(bytes("\"Ann,Lee\n\"Bob\"x,Stone\nCara,Diaz\n"), 0);
+
+        assertThat(rows).hasSize(3);
+        assertThat(rows.get(0).getCustomerDTO()).isNull();
+        assertThat(rows.get(0).getError()).contains("unterminated");
+        assertThat(rows.get(1).getCustomerDTO()).isNull();
+        assertThat(rows.get(1).getError()).contains("after quoted field");
+        assertCustomer(rows.get(2).getCustomerDTO(), "Cara", null, "Diaz");
+    }
+
+    @Test
+    void Parse_BufferRegion_OffsetsRelativeToFile() {
+        CustomerCsvParser parser = CustomerCsvParser.forHeader("first_name,last_name");
+        ByteBuffer buffer = bytes("xxxxAnn,Lee\nBob,Stone\n");
+        buffer.position(4);
+
+        List<CustomerCsvParser.Row> rows = parser.parse(buffer, 1000);
+
+        assertThat(rows).extracting(CustomerCsvParser.Row::getOffset).containsExactly(1000L, 1008L);
+        assertThat(buffer.position()).isEqualTo(4);
+    }
+
+    @Test
+    void ForHeader_NoLastNameColumn_ThrowIllegalArgument() {
+        assertThrows(IllegalArgumentException.class, () -> CustomerCsvParser.forHeader("first_name,surname"));
+    }
+
+    private static ByteBuffer bytes(String content) {
+        return ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void assertCustomer(CustomerDTO customerDTO, String firstName, String middleName, String lastName) {
+        assertThat(customerDTO.getFirstName()).isEqualTo(firstName);
+        assertThat(customerDTO.getMiddleName()).isEqualTo(middleName);
+        assertThat(customerDTO.getLastName()).isEqualTo(lastName);
+    }
+}
@@ -0,0 +1,169 @@
+package com.programming.customer;
+
+import com.programming.customer.dto.CustomerDTO;
+import com.programming.customer.persistence.model.CustomerImport;
+import com.programming.customer.persistence.repository.CustomerImportRepository;
+import com.programming.customer.service.CustomerImportService;
+import com.programming.customer.service.CustomerService;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.persistence.EntityManager;
+import javax.validation.Validation;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerImportServiceTest {
+
+    private static final String HEADER = "id,first_name,middle_name,last_name\n";
+
+    private static final String ROWS = "1, Ann ,,Lee\n"
+            + "2,\"Smith, Jr.\",B,Jones\n"
+            + "3,,C,Doe\n"
+            + "4,Bob,,Stone\n";
+
+    @Mock
+    private CustomerService customerService;
+
+    @Mock
+    private CustomerImportRepository customerImportRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private Session session;
+
+    @TempDir
+    Path tempDir;
+
+    private CustomerImportService customerImportService;
+
+    private Path file;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        customerImportService = new CustomerImportService(customerService, customerImportRepository,
+                Validation.buildDefaultValidatorFactory().getValidator(), transactionManager, entityManager);
+        // Small chunks, so the rows are spread over several chunks and parser threads.
+        ReflectionTestUtils.setField(customerImportService, "chunkSize", "16B");
+        ReflectionTestUtils.setField(customerImportService, "parserThreads", 2);
+        ReflectionTestUtils.setField(customerImportService, "rowsPerTransaction", 1000);
+        file = Files.write(tempDir.resolve("customers.csv"), (HEADER + ROWS).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void ImportFile_ValidAndInvalidRows_ValidSavedInFileOrder() throws Exception {
+        stubTransactions();
+        when(customerImportRepository.findById(CustomerImportService.fileKey(file))).thenReturn(Optional.empty());
+
+        CustomerImport customerImport = customerImportService.importFile(file);
+
+        assertThat(firstNamesSaved()).containsExactly(" Ann ", "Smith, Jr.", "Bob");
+        assertThat(customerImport.isCompleted()).isTrue();
+        assertThat(customerImport.getImportedCount()).isEqualTo(3);
+        assertThat(customerImport.getRejectedCount()).isEqualTo(1);
+        assertThat(customerImport.getCommittedOffset()).isEqualTo(Files.size(file));
+        verify(session, atLeast(1)).setCacheMode(CacheMode.IGNORE);
+    }
+
+    @Test
+    void ImportFile_ChunkOverRowLimit_CommittedPerBatch() throws Exception {
+        ReflectionTestUtils.setField(customerImportService, "chunkSize", "1MB");
+        ReflectionTestUtils.setField(customerImportService, "rowsPerTransaction", 2);
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        List<Long> committedOffsets = new ArrayList<>();
+        when(customerImportRepository.save(any(CustomerImport.class))).thenAnswer(invocation -> {
+            committedOffsets.add(invocation.<CustomerImport>getArgument(0).getCommittedOffset());
+            return invocation.getArgument(0);
+        });
+        when(customerImportRepository.findById(CustomerImportService.fileKey(file))).thenReturn(Optional.empty());
+
+        CustomerImport customerImport = customerImportService.importFile(file);
+
+        // The first batch ends where the row after its two customers starts; the rejected row goes with the second.
+        assertThat(committedOffsets).containsExactly((long) HEADER.length() + ROWS.indexOf("3,"), Files.size(file));
+        assertThat(firstNamesSaved()).containsExactly(" Ann ", "Smith, Jr.", "Bob");
+        assertThat(customerImport.getImportedCount()).isEqualTo(3);
+        assertThat(customerImport.getRejectedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void ImportFile_PartlyImported_ResumesAfterCommittedOffset() throws Exception {
+        stubTransactions();
+        CustomerImport partlyImported = new CustomerImport(CustomerImportService.fileKey(file));
+        partlyImported.setCommittedOffset(HEADER.length() + ROWS.indexOf("3,"));
+        partlyImported.setImportedCount(2);
+        when(customerImportRepository.findById(partlyImported.getFileKey())).thenReturn(Optional.of(partlyImported));
+
+        CustomerImport customerImport = customerImportService.importFile(file);
+
+        assertThat(firstNamesSaved()).containsExactly("Bob");
+        assertThat(customerImport.isCompleted()).isTrue();
+        assertThat(customerImport.getImportedCount()).isEqualTo(3);
+        assertThat(customerImport.getRejectedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void FileKey_SameNameAndSizeOtherContent_DifferentKey() throws Exception {
+        Path other = Files.write(Files.createDirectory(tempDir.resolve("other")).resolve("customers.csv"),
+                (HEADER + ROWS.replace("Bob", "Tom")).getBytes(StandardCharsets.UTF_8));
+        Path copy = Files.write(Files.createDirectory(tempDir.resolve("copy")).resolve("customers.csv"),
+                Files.readAllBytes(file));
+
+        assertThat(Files.size(other)).isEqualTo(Files.size(file));
+        assertThat(CustomerImportService.fileKey(other)).isNotEqualTo(CustomerImportService.fileKey(file));
+        assertThat(CustomerImportService.fileKey(copy)).isEqualTo(CustomerImportService.fileKey(file));
+    }
+
+    @Test
+    void ImportFile_Completed_NothingSaved() throws Exception {
+        CustomerImport completed = new CustomerImport(CustomerImportService.fileKey(file));
+        completed.setCompleted(true);
+        when(customerImportRepository.findById(completed.getFileKey())).thenReturn(Optional.of(completed));
+
+        assertThat(customerImportService.importFile(file)).isSameAs(completed);
+        verify(customerService, never()).saveCustomers(any());
+        verify(customerImportRepository, never()).save(any());
+    }
+
+    private void stubTransactions() {
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        when(customerImportRepository.save(any(CustomerImport.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> firstNamesSaved() {
+        ArgumentCaptor<List<CustomerDTO>> captor = ArgumentCaptor.forClass(List.class);
+        verify(customerService, atLeast(1)).saveCustomers(captor.capture());
+        return captor.getAllValues().stream()
+                .flatMap(List::stream)
+                .map(CustomerDTO::getFirstName)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,46 @@
+package com.programming.customer;
+
+import com.programming.customer.dto.CustomerDTO;
+import com.programming.customer.persistence.model.Customer;
+import com.programming.customer.util.CustomerMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerMapperTest {
+
+    private final CustomerMapper customerMapper = new CustomerMapper();
+
+    @Test
+    void ToCustomerDTO_CopiesAllFields() {
+        Customer customer = new Customer();
+        customer.setId(1L);
+        customer.setFirstName("John");
+        customer.setMiddleName("Smith");
+        customer.setLastName("Doe");
+
+        CustomerDTO customerDTO = customerMapper.toCustomerDTO(customer);
+        assertThat(customerDTO).isEqualTo(new CustomerDTO(1L, "John", "Smith", "Doe"));
+    }
+
+    @Test
+    void ToCustomer_CopiesAllFields() {
+        Customer customer = customerMapper.toCustomer(new CustomerDTO(1L, "John", null, "Doe"));
+        assertThat(customer.getId()).isEqualTo(1L);
+        assertThat(customer.getFirstName()).isEqualTo("John");
+        assertThat(customer.getMiddleName()).isNull();
+        assertThat(customer.getLastName()).isEqualTo("Doe");
+    }
+
+    @Test
+    void ToCustomerDTOList_PreservesOrder() {
+        Customer first = customerMapper.toCustomer(new CustomerDTO(1L, "John", "Smith", "Doe"));
+        Customer second = customerMapper.toCustomer(new CustomerDTO(2L, "Jane", null, "Doe"));
+
+        List<CustomerDTO> customerDTOList = customerMapper.toCustomerDTOList(Arrays.asList(first, second));
+        assertThat(customerDTOList).extracting(CustomerDTO::getId).containsExactly(1L, 2L);
+    }
+}
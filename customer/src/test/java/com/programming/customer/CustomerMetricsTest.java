@@ -0,0 +1,80 @@
+package com.programming.customer;
+
+import com.programming.customer.config.InvocationTimingPostProcessor;
+import com.programming.customer.persistence.model.Customer;
+import com.programming.customer.persistence.repository.CustomerRepository;
+import com.programming.customer.util.CustomerMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+@SpringJUnitConfig(CustomerMetricsTest.Config.class)
+class CustomerMetricsTest {
+
+    @Configuration
+    @Import({InvocationTimingPostProcessor.class, CustomerMapper.class})
+    static class Config {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        CustomerRepository customerRepository() {
+            return Mockito.mock(CustomerRepository.class);
+        }
+    }
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CustomerMapper customerMapper;
+
+    @Test
+    void RepositoryCall_RecordsTimerPerMethod() {
+        customerRepository.findAll();
+        customerRepository.findAll();
+
+        assertThat(meterRegistry.get(InvocationTimingPostProcessor.REPOSITORY_TIMER)
+                .tags("class", "CustomerRepository", "method", "findAll", "exception", "none")
+                .timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void RepositoryCall_Failure_TaggedWithException() {
+        when(customerRepository.findById(1L)).thenThrow(new IllegalStateException("boom"));
+
+        assertThrows(IllegalStateException.class, () -> customerRepository.findById(1L));
+        assertThat(meterRegistry.get(InvocationTimingPostProcessor.REPOSITORY_TIMER)
+                .tags("method", "findById", "exception", "IllegalStateException")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void MapperCall_OnlyListMappingTimed() {
+        customerMapper.toCustomerDTOList(Collections.singletonList(new Customer()));
+        customerMapper.toCustomerDTO(new Customer());
+
+        assertThat(meterRegistry.get(InvocationTimingPostProcessor.MAPPER_TIMER).timers()).hasSize(1);
+        assertThat(meterRegistry.get(InvocationTimingPostProcessor.MAPPER_TIMER)
+                .tags("method", "toCustomerDTOList")
+                .timer().count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,69 @@
+package com.programming.customer;
+
+import com.programming.customer.dto.CustomerDTO;
+import com.programming.customer.service.CustomerSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerSearchIndexTest {
+
+    private CustomerSearchIndex customerSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        customerSearchIndex = new CustomerSearchIndex();
+        customerSearchIndex.index(new CustomerDTO(1L, "Martina", null, "Lopez", 0L));
+        customerSearchIndex.index(new CustomerDTO(2L, "John", "Smith", "Martin", 0L));
+        customerSearchIndex.index(new CustomerDTO(3L, "Mar", null, "Jones", 0L));
+        customerSearchIndex.index(new CustomerDTO(4L, "Omar", null, "Doe", 0L));
+    }
+
+    @Test
+    void Search_Prefix_ExactThenShorterPrefixThenSubstring() {
+        assertThat(ids(customerSearchIndex.search("mar", 10))).containsExactly(3L, 2L, 1L, 4L);
+    }
+
+    @Test
+    void Search_Limit_StopsAtBestMatches() {
+        assertThat(ids(customerSearchIndex.search("MAR", 2))).containsExactly(3L, 2L);
+    }
+
+    @Test
+    void Search_ShortToken_PrefixOnly() {
+        assertThat(ids(customerSearchIndex.search("ar", 10))).isEmpty();
+        assertThat(ids(customerSearchIndex.search("jo", 10))).containsExactly(2L, 3L);
+    }
+
+    @Test
+    void Search_SeveralTokens_EveryTokenMatches() {
+        assertThat(ids(customerSearchIndex.search(" jo  mar ", 10))).containsExactly(2L, 3L);
+        assertThat(ids(customerSearchIndex.search("smith lopez", 10))).isEmpty();
+    }
+
+    @Test
+    void Index_ExistingCustomer_ReplacesNames() {
+        customerSearchIndex.index(new CustomerDTO(4L, "Olivia", null, "Doe", 1L));
+
+        assertThat(ids(customerSearchIndex.search("omar", 10))).isEmpty();
+        List<CustomerDTO> customerDTOList = customerSearchIndex.search("oli", 10);
+        assertThat(ids(customerDTOList)).containsExactly(4L);
+        assertThat(customerDTOList.get(0).getVersion()).isEqualTo(1L);
+        assertThat(customerSearchIndex.size()).isEqualTo(4);
+    }
+
+    @Test
+    void IndexIfAbsent_ExistingCustomer_KeepsNewerEntry() {
+        customerSearchIndex.indexIfAbsent(new CustomerDTO(4L, "Olivia", null, "Doe", 1L));
+
+        assertThat(ids(customerSearchIndex.search("omar", 10))).containsExactly(4L);
+    }
+
+    private static List<Long> ids(List<CustomerDTO> customerDTOList) {
+        return customerDTOList.stream().map(CustomerDTO::getId).collect(Collectors.toList());
+    }
+}
@@ -1,25 +1,54 @@
 package com.programming.customer;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.programming.customer.dto.CustomerChangesDTO;
 import com.programming.customer.dto.CustomerDTO;
+import com.programming.customer.dto.CustomerPageDTO;
+import com.programming.customer.dto.CustomerValidatorDTO;
+import com.programming.customer.exception.CustomerNotFoundException;
+import com.programming.customer.exception.CustomerVersionConflictException;
+import com.programming.customer.exception.InvalidChangeTokenException;
 import com.programming.customer.persistence.model.Customer;
+import com.programming.customer.persistence.model.CustomerVersion;
 import com.programming.customer.persistence.repository.CustomerRepository;
+import com.programming.customer.service.CustomerSearchIndex;
 import com.programming.customer.service.CustomerServiceImpl;
-import com.programming.customer.util.DozerMapperUtil;
-import org.dozer.DozerBeanMapper;
+import com.programming.customer.util.ChangeTokens;
+import com.programming.customer.util.CustomerMapper;
+import com.programming.customer.util.CustomerValidators;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -29,75 +58,172 @@ class CustomerServiceTest {
     private CustomerRepository customerRepository;
 
     @Mock
-    private DozerMapperUtil dozerMapperUtil;
+    private EntityManager entityManager;
 
-    @Mock
-    private DozerBeanMapper dozerBeanMapper;
+    private final CustomerSearchIndex customerSearchIndex = new CustomerSearchIndex();
 
     @InjectMocks
     private CustomerServiceImpl customerService;
 
     @BeforeEach
     public void setup() {
-        customerService = new CustomerServiceImpl(customerRepository, dozerMapperUtil);
+        customerService = new CustomerServiceImpl(customerRepository, new CustomerMapper(), new ObjectMapper(), entityManager,
+                customerSearchIndex, () -> Optional.of("sa"));
+        ReflectionTestUtils.setField(customerService, "changesSettleTime", "5s");
     }
 
     @Test
     void FindAllCustomer_Empty_Success() {
         List<Customer> customerList = new ArrayList<>();
-        when(customerRepository.findAll()).thenReturn(customerList);
-        List<CustomerDTO> returnedList = customerService.findCustomers();
-        assertThat(returnedList.size()).isZero();
+        when(customerRepository.findCustomersAfter(0L, PageRequest.of(0, 11))).thenReturn(customerList);
+        CustomerPageDTO customerPageDTO = customerService.findCustomers(0L, 10);
+        assertThat(customerPageDTO.getCustomers().size()).isZero();
+        assertThat(customerPageDTO.getNext()).isNull();
     }
 
     @Test
     void FindAllCustomer_NonEmpty_Success() {
         List<Customer> customerList = Collections.singletonList(new Customer());
-        when(dozerMapperUtil.mapper()).thenReturn(dozerBeanMapper);
-        when(customerRepository.findAll()).thenReturn(customerList);
+        when(customerRepository.findCustomersAfter(0L, PageRequest.of(0, 11))).thenReturn(customerList);
 
-        List<CustomerDTO> returnedList = customerService.findCustomers();
-        assertThat(returnedList.size()).isEqualTo(1);
+        CustomerPageDTO customerPageDTO = customerService.findCustomers(0L, 10);
+        assertThat(customerPageDTO.getCustomers().size()).isEqualTo(1);
+        assertThat(customerPageDTO.getNext()).isNull();
     }
 
     @Test
-    void FindCustomerById_Existing_Success() {
-        when(dozerBeanMapper.map(any(Customer.class), any())).thenReturn(new CustomerDTO());
-        when(dozerMapperUtil.mapper()).thenReturn(dozerBeanMapper);
-        when(customerRepository.findById(1L)).thenReturn(Optional.of(new Customer()));
+    void FindAllCustomer_MoreThanLimit_ReturnsNextCursor() {
+        Customer first = new Customer();
+        first.setId(5L);
+        Customer second = new Customer();
+        second.setId(7L);
+        when(customerRepository.findCustomersAfter(0L, PageRequest.of(0, 2))).thenReturn(Arrays.asList(first, second));
 
-        List<CustomerDTO> customerDTOList = customerService.findCustomerById(1L);
-        assertThat(customerDTOList).isNotEmpty();
+        CustomerPageDTO customerPageDTO = customerService.findCustomers(0L, 1);
+        assertThat(customerPageDTO.getCustomers().size()).isEqualTo(1);
+        assertThat(customerPageDTO.getNext()).isEqualTo(5L);
     }
 
+    @Test
+    void FindCustomersValidator_MatchesValidatorOfLoadedPage() {
+        Customer first = new Customer();
+        first.setId(5L);
+        first.setVersion(2L);
+        first.setModifiedDate(new Date(1_000L));
+        Customer second = new Customer();
+        second.setId(7L);
+        second.setVersion(0L);
+        second.setModifiedDate(new Date(2_000L));
+        when(customerRepository.findCustomersAfter(0L, PageRequest.of(0, 2))).thenReturn(Arrays.asList(first, second));
+        when(customerRepository.findCustomerVersionsAfter(0L, PageRequest.of(0, 2))).thenReturn(Arrays.asList(
+                new CustomerVersion(5L, 2L, new Date(1_000L)), new CustomerVersion(7L, 0L, new Date(2_000L))));
+
+        CustomerValidatorDTO customerValidatorDTO = customerService.findCustomersValidator(0L, 1);
+
+        assertThat(customerValidatorDTO).isEqualTo(CustomerValidators.forPage(0L, 1, customerService.findCustomers(0L, 1)));
+        assertThat(customerValidatorDTO.getLastModified()).isEqualTo(1_000L);
+    }
 
     @Test
-    void FindCustomerById_NonExisting_Empty() {
-        when(customerRepository.findById(8L)).thenReturn(Optional.empty());
+    void FindCustomerChanges_MoreThanLimit_TokenResumesAfterLastChange() throws Exception {
+        Customer first = new Customer();
+        first.setId(9L);
+        first.setModifiedDate(new Date(1_000L));
+        Customer second = new Customer();
+        second.setId(4L);
+        second.setModifiedDate(new Date(2_000L));
+        when(customerRepository.findCustomersModifiedAfter(eq(new Date(0L)), eq(0L), any(Date.class), eq(PageRequest.of(0, 2))))
+                .thenReturn(Arrays.asList(first, second));
 
-        List<CustomerDTO> customerDTOList = customerService.findCustomerById(8L);
-        assertThat(customerDTOList).isEmpty();
+        CustomerChangesDTO customerChangesDTO = customerService.findCustomerChanges(null, 1);
+        assertThat(customerChangesDTO.getCustomers()).extracting(CustomerDTO::getId).containsExactly(9L);
+        assertThat(customerChangesDTO.isHasMore()).isTrue();
+
+        ChangeTokens.Position position = ChangeTokens.decode(customerChangesDTO.getNext());
+        assertThat(position.getModifiedDate()).isEqualTo(new Date(1_000L));
+        assertThat(position.getId()).isEqualTo(9L);
+    }
+
+    @Test
+    void FindCustomerChanges_NoNewChanges_KeepsTokenAndSkipsRecentRows() throws Exception {
+        String since = ChangeTokens.encode(new ChangeTokens.Position(new Date(1_000L), 9L));
+        ArgumentCaptor<Date> until = ArgumentCaptor.forClass(Date.class);
+        when(customerRepository.findCustomersModifiedAfter(eq(new Date(1_000L)), eq(9L), until.capture(), any()))
+                .thenReturn(Collections.emptyList());
+
+        CustomerChangesDTO customerChangesDTO = customerService.findCustomerChanges(since, 10);
+        assertThat(customerChangesDTO.getCustomers()).isEmpty();
+        assertThat(customerChangesDTO.getNext()).isEqualTo(since);
+        assertThat(customerChangesDTO.isHasMore()).isFalse();
+        assertThat(until.getValue()).isBefore(new Date(System.currentTimeMillis() - 4_000L));
+    }
+
+    @Test
+    void FindCustomerChanges_MalformedToken_ThrowInvalidToken() {
+        assertThrows(InvalidChangeTokenException.class, () -> customerService.findCustomerChanges("not-a-token", 10));
+        verify(customerRepository, never()).findCustomersModifiedAfter(any(), any(), any(), any());
     }
 
     @Test
-    void CountCustomerWithId_Existing_NotZero() {
-        when(customerRepository.countCustomerwithId(1L)).thenReturn(1);
+    void ExportCustomers_NonEmpty_WritesOneLinePerCustomer() throws IOException {
+        Customer first = new Customer();
+        first.setId(1L);
+        first.setFirstName("John");
+        Customer second = new Customer();
+        second.setId(2L);
+        second.setFirstName("Jane");
+        when(customerRepository.streamAll()).thenReturn(Stream.of(first, second));
 
-        int customerCount = customerService.countCustomerWithId(1L);
-        assertThat(customerCount).isNotZero();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        customerService.exportCustomers(outputStream);
+
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8.name()).split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).contains("\"id\":1").contains("\"firstName\":\"John\"");
+        assertThat(lines[1]).contains("\"id\":2").contains("\"firstName\":\"Jane\"");
+        verify(entityManager).detach(first);
+        verify(entityManager).detach(second);
+    }
+
+    @Test
+    void FindCustomerById_Existing_Success() {
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(new Customer()));
+
+        List<CustomerDTO> customerDTOList = customerService.findCustomerById(1L);
+        assertThat(customerDTOList).isNotEmpty();
     }
 
 
     @Test
-    void CountCustomerWithId_NonExisting_Zero() {
-        when(customerRepository.countCustomerwithId(100L)).thenReturn(0);
+    void FindCustomersByIds_MoreThanChunk_QueriesInSortedChunks() {
+        List<Long> customerIds = LongStream.rangeClosed(1, 1500).boxed().collect(Collectors.toList());
+        Collections.reverse(customerIds);
+        when(customerRepository.findCustomersByIds(any())).thenAnswer(invocation -> {
+            List<Long> chunk = invocation.getArgument(0);
+            return chunk.stream().map(id -> {
+                Customer customer = new Customer();
+                customer.setId(id);
+                return customer;
+            }).collect(Collectors.toList());
+        });
 
-        int customerCount = customerService.countCustomerWithId(100L);
-        assertThat(customerCount).isZero();
+        List<CustomerDTO> customerDTOList = customerService.findCustomersByIds(customerIds);
+        assertThat(customerDTOList).hasSize(1500);
+        assertThat(customerDTOList.get(0).getId()).isEqualTo(1L);
+        verify(customerRepository).findCustomersByIds(LongStream.rangeClosed(1, 1000).boxed().collect(Collectors.toList()));
+        verify(customerRepository).findCustomersByIds(LongStream.rangeClosed(1001, 1500).boxed().collect(Collectors.toList()));
     }
 
     @Test
-    void SaveCustomer_NewCustomer_CreationSuccess() {
+    void FindCustomerById_NonExisting_Empty() {
+        when(customerRepository.findById(8L)).thenReturn(Optional.empty());
+
+        List<CustomerDTO> customerDTOList = customerService.findCustomerById(8L);
+        assertThat(customerDTOList).isEmpty();
+    }
+
+    @Test
+    void SaveCustomer_NewCustomer_CreationSuccess() throws Exception {
         Customer customer = new Customer();
         customer.setId(1L);
         customer.setFirstName("John");
@@ -105,9 +231,6 @@ class CustomerServiceTest {
         customer.setLastName("Doe");
         CustomerDTO customerDTO = new CustomerDTO(null, "John", "Smith", "Doe");
 
-        when(dozerBeanMapper.map(any(Customer.class), any())).thenReturn(customerDTO);
-        when(dozerBeanMapper.map(any(CustomerDTO.class), any())).thenReturn(customer);
-        when(dozerMapperUtil.mapper()).thenReturn(dozerBeanMapper);
         when(customerRepository.save(any())).thenReturn(customer);
 
         CustomerDTO returnedDTO = customerService.saveCustomer(customerDTO);
@@ -117,22 +240,119 @@ class CustomerServiceTest {
     }
 
     @Test
-    void UpdateCustomer_ExistingCustomer_CreationSuccess() {
-        Customer customer = new Customer();
-        customer.setId(1L);
-        customer.setFirstName("Johnny");
-        customer.setMiddleName("Smith");
-        customer.setLastName("Doe");
-        CustomerDTO customerDTO = new CustomerDTO(1L, "Johnny", "Smith", "Doe");
+    void SaveCustomers_Batch_PersistsEachAndTrimsNames() {
+        List<CustomerDTO> customerDTOList = Arrays.asList(
+                new CustomerDTO(99L, " John ", null, "Doe ", 7L),
+                new CustomerDTO(null, "Jane", "Smith", "Doe"));
 
-        when(dozerBeanMapper.map(any(Customer.class), any())).thenReturn(customerDTO);
-        when(dozerBeanMapper.map(any(CustomerDTO.class), any())).thenReturn(customer);
-        when(dozerMapperUtil.mapper()).thenReturn(dozerBeanMapper);
-        when(customerRepository.save(any())).thenReturn(customer);
+        List<CustomerDTO> returnedList = customerService.saveCustomers(customerDTOList);
+        assertThat(returnedList).hasSize(2);
+        assertThat(returnedList.get(0).getId()).isNull();
+        assertThat(returnedList.get(0).getVersion()).isNull();
+        assertThat(returnedList.get(0).getFirstName()).isEqualTo("John");
+        assertThat(returnedList.get(0).getMiddleName()).isNull();
+        assertThat(returnedList.get(0).getLastName()).isEqualTo("Doe");
+        verify(entityManager, times(2)).persist(any(Customer.class));
+        verify(entityManager, never()).flush();
+    }
+
+    @Test
+    void UpdateCustomer_MatchingVersion_IncrementsVersion() throws Exception {
+        CustomerDTO customerDTO = new CustomerDTO(1L, " Johnny ", "Smith", "Doe", 3L);
+        when(customerRepository.updateCustomer(eq(1L), eq("Johnny"), eq("Smith"), eq("Doe"), eq(3L), any(Date.class), eq("sa")))
+                .thenReturn(Optional.of(4L));
+
+        CustomerDTO returnedDTO = customerService.updateCustomer(customerDTO);
+        assertThat(returnedDTO.getFirstName()).isEqualTo("Johnny");
+        assertThat(returnedDTO.getVersion()).isEqualTo(4L);
+        assertThat(returnedDTO.getModifiedDate()).isNotNull();
+    }
+
+    @Test
+    void UpdateCustomer_ExistingCustomer_SingleUpdateWithoutLoading() throws Exception {
+        when(customerRepository.updateCustomer(eq(1L), any(), any(), any(), eq(3L), any(Date.class), any()))
+                .thenReturn(Optional.of(4L));
+
+        customerService.updateCustomer(new CustomerDTO(1L, "Johnny", "Smith", "Doe", 3L));
+
+        verify(customerRepository, never()).findById(any());
+        verify(customerRepository, never()).existsById(any());
+        verifyNoInteractions(entityManager);
+    }
+
+    @Test
+    void UpdateCustomer_IndexedCustomer_SearchFindsNewName() throws Exception {
+        customerSearchIndex.index(new CustomerDTO(1L, "John", "Smith", "Doe", 3L));
+        when(customerRepository.updateCustomer(eq(1L), any(), any(), any(), eq(3L), any(Date.class), any()))
+                .thenReturn(Optional.of(4L));
+
+        customerService.updateCustomer(new CustomerDTO(1L, "Johnny", "Smith", "Roe", 3L));
+
+        assertThat(customerService.searchCustomers("roe", 10)).extracting(CustomerDTO::getVersion).containsExactly(4L);
+        assertThat(customerService.searchCustomers("doe", 10)).isEmpty();
+    }
+
+    @Test
+    void UpdateCustomer_StaleVersion_ThrowConflict() {
+        CustomerDTO customerDTO = new CustomerDTO(1L, "Johnny", "Smith", "Doe", 3L);
+        when(customerRepository.updateCustomer(eq(1L), any(), any(), any(), eq(3L), any(Date.class), any()))
+                .thenReturn(Optional.empty());
+        when(customerRepository.existsById(1L)).thenReturn(true);
+
+        assertThrows(CustomerVersionConflictException.class, () -> customerService.updateCustomer(customerDTO));
+    }
+
+    @Test
+    void UpdateCustomer_NonExisting_ThrowNotFound() {
+        CustomerDTO customerDTO = new CustomerDTO(100L, "Johnny", "Smith", "Doe");
+        when(customerRepository.updateCustomer(eq(100L), any(), any(), any(), isNull(), any(Date.class), any()))
+                .thenReturn(Optional.empty());
+
+        assertThrows(CustomerNotFoundException.class, () -> customerService.updateCustomer(customerDTO));
+        verify(customerRepository, never()).existsById(100L);
+    }
+
+    @Test
+    void UpdateCustomer_StaleVersionOfMissingCustomer_ThrowNotFound() {
+        CustomerDTO customerDTO = new CustomerDTO(100L, "Johnny", "Smith", "Doe", 3L);
+        when(customerRepository.updateCustomer(eq(100L), any(), any(), any(), eq(3L), any(Date.class), any()))
+                .thenReturn(Optional.empty());
+        when(customerRepository.existsById(100L)).thenReturn(false);
+
+        assertThrows(CustomerNotFoundException.class, () -> customerService.updateCustomer(customerDTO));
+    }
+
+    @Test
+    void SaveCustomer_ExistingIdWithoutVersion_UpdatesCustomer() throws Exception {
+        CustomerDTO customerDTO = new CustomerDTO(1L, " Johnny ", "Smith", "Doe");
+        when(customerRepository.updateCustomer(eq(1L), eq("Johnny"), eq("Smith"), eq("Doe"), isNull(), any(Date.class), any()))
+                .thenReturn(Optional.of(4L));
 
         CustomerDTO returnedDTO = customerService.saveCustomer(customerDTO);
-        assertThat(returnedDTO.getFirstName()).isEqualTo(customer.getFirstName());
-        assertThat(returnedDTO.getMiddleName()).isEqualTo(customer.getMiddleName());
-        assertThat(returnedDTO.getLastName()).isEqualTo(customer.getLastName());
+        assertThat(returnedDTO.getFirstName()).isEqualTo("Johnny");
+        assertThat(returnedDTO.getVersion()).isEqualTo(4L);
+        verify(customerRepository, never()).save(any());
+        verify(entityManager, never()).persist(any());
+    }
+
+    @Test
+    void SaveCustomer_ExistingIdStaleVersion_ThrowConflict() {
+        when(customerRepository.updateCustomer(eq(1L), any(), any(), any(), eq(3L), any(Date.class), any()))
+                .thenReturn(Optional.empty());
+        when(customerRepository.existsById(1L)).thenReturn(true);
+        CustomerDTO customerDTO = new CustomerDTO(1L, "Johnny", "Smith", "Doe", 3L);
+
+        assertThrows(CustomerVersionConflictException.class, () -> customerService.saveCustomer(customerDTO));
+        verify(customerRepository, never()).save(any());
+    }
+
+    @Test
+    void SaveCustomer_UnknownId_ThrowNotFound() {
+        when(customerRepository.updateCustomer(eq(100L), any(), any(), any(), isNull(), any(Date.class), any()))
+                .thenReturn(Optional.empty());
+
+        assertThrows(CustomerNotFoundException.class,
+                () -> customerService.saveCustomer(new CustomerDTO(100L, "Johnny", "Smith", "Doe")));
+        verify(customerRepository, never()).save(any());
     }
 }
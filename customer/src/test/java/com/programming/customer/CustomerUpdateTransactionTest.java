@@ -0,0 +1,237 @@
+package com.programming.customer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.programming.customer.config.HibernateCacheConfig;
+import com.programming.customer.dto.CustomerDTO;
+import com.programming.customer.exception.CustomerVersionConflictException;
+import com.programming.customer.persistence.model.Customer;
+import com.programming.customer.persistence.repository.CustomerRepository;
+import com.programming.customer.service.CustomerSearchIndex;
+import com.programming.customer.service.CustomerService;
+import com.programming.customer.service.CustomerServiceImpl;
+import com.programming.customer.util.CustomerMapper;
+import org.hibernate.cfg.AvailableSettings;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Writes and reads through Hibernate, its second-level cache and the JPA transaction manager on an in-memory H2
+ * database. For updates, a second connection stands in for another node that writes just before the update is sent.
+ */
+@SpringJUnitConfig(CustomerUpdateTransactionTest.Config.class)
+@TestPropertySource(properties = {"customer.changes.settle-time=5s",
+        "customer.second-level-cache.entity.maximum-size=100", "customer.second-level-cache.entity.expire-after-write=1m"})
+class CustomerUpdateTransactionTest {
+
+    // Runs once when the next write asks for the auditor, before its statement is sent.
+    private static volatile Runnable beforeWrite;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    public void tearDown() {
+        beforeWrite = null;
+        customerRepository.deleteAll();
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void UpdateCustomer_ConcurrentWriteBeforeUpdate_Conflict() throws Exception {
+        CustomerDTO saved = customerService.saveCustomer(new CustomerDTO(null, "John", "Smith", "Doe"));
+        beforeWrite = () -> concurrentRename(saved.getId(), "Jack");
+
+        CustomerDTO update = new CustomerDTO(saved.getId(), "Johnny", "Smith", "Doe", saved.getVersion());
+        assertThrows(CustomerVersionConflictException.class, () -> customerService.updateCustomer(update));
+
+        assertThat(storedFirstName(saved.getId())).isEqualTo("Jack");
+    }
+
+    @Test
+    void SaveCustomer_ConcurrentWriteBeforeUpdate_Conflict() throws Exception {
+        CustomerDTO saved = customerService.saveCustomer(new CustomerDTO(null, "John", "Smith", "Doe"));
+        beforeWrite = () -> concurrentRename(saved.getId(), "Jack");
+
+        assertThrows(CustomerVersionConflictException.class, () -> customerService.saveCustomer(
+                new CustomerDTO(saved.getId(), "Johnny", "Smith", "Doe", saved.getVersion())));
+
+        assertThat(storedFirstName(saved.getId())).isEqualTo("Jack");
+    }
+
+    @Test
+    void UpdateCustomer_NoConcurrentWrite_Committed() throws Exception {
+        CustomerDTO saved = customerService.saveCustomer(new CustomerDTO(null, "John", "Smith", "Doe"));
+
+        CustomerDTO update = new CustomerDTO(saved.getId(), "Johnny", "Smith", "Doe", saved.getVersion());
+        CustomerDTO updated = customerService.updateCustomer(update);
+
+        assertThat(updated.getVersion()).isEqualTo(saved.getVersion() + 1);
+        assertThat(customerRepository.findById(saved.getId()).get().getFirstName()).isEqualTo("Johnny");
+    }
+
+    @Test
+    void UpdateCustomer_WithoutVersion_ReturnsNewVersion() throws Exception {
+        CustomerDTO saved = customerService.saveCustomer(new CustomerDTO(null, "John", "Smith", "Doe"));
+        concurrentRename(saved.getId(), "Jack");
+
+        CustomerDTO updated = customerService.updateCustomer(new CustomerDTO(saved.getId(), "Johnny", "Smith", "Doe"));
+
+        assertThat(updated.getVersion()).isEqualTo(saved.getVersion() + 2);
+        assertThat(customerRepository.findById(saved.getId()).get().getVersion()).isEqualTo(updated.getVersion());
+    }
+
+    @Test
+    void UpdateCustomer_CachedCustomers_EvictsOnlyUpdatedCustomer() throws Exception {
+        CustomerDTO first = customerService.saveCustomer(new CustomerDTO(null, "John", "Smith", "Doe"));
+        CustomerDTO second = customerService.saveCustomer(new CustomerDTO(null, "Jane", "Smith", "Doe"));
+        customerService.findCustomersByIds(Arrays.asList(first.getId(), second.getId()));
+
+        customerService.updateCustomer(new CustomerDTO(first.getId(), "Johnny", "Smith", "Doe", first.getVersion()));
+
+        assertThat(entityManagerFactory.getCache().contains(Customer.class, first.getId())).isFalse();
+        assertThat(entityManagerFactory.getCache().contains(Customer.class, second.getId())).isTrue();
+        assertThat(customerService.findCustomersByIds(Collections.singletonList(first.getId())))
+                .extracting(CustomerDTO::getFirstName).containsExactly("Johnny");
+    }
+
+    @Test
+    void FindCustomersByIds_CachedCustomer_ServedFromSecondLevelCache() throws Exception {
+        CustomerDTO saved = customerService.saveCustomer(new CustomerDTO(null, "John", "Smith", "Doe"));
+        entityManagerFactory.getCache().evictAll();
+        customerService.findCustomersByIds(Arrays.asList(saved.getId(), saved.getId() + 1));
+        // Changed behind Hibernate's back, so only a read from the database would see it.
+        concurrentRename(saved.getId(), "Jack");
+
+        assertThat(customerService.findCustomersByIds(Arrays.asList(saved.getId(), saved.getId() + 1)))
+                .extracting(CustomerDTO::getFirstName).containsExactly("John");
+    }
+
+    @Test
+    void FindCustomers_Page_LeavesSecondLevelCacheAlone() throws Exception {
+        CustomerDTO saved = customerService.saveCustomer(new CustomerDTO(null, "John", "Smith", "Doe"));
+        entityManagerFactory.getCache().evictAll();
+
+        assertThat(customerService.findCustomers(0L, 10).getCustomers()).hasSize(1);
+        assertThat(entityManagerFactory.getCache().contains(Customer.class, saved.getId())).isFalse();
+    }
+
+    @Test
+    void SaveCustomers_ClientVersion_NewRowsStartAtZero() {
+        List<CustomerDTO> saved = customerService.saveCustomers(
+                Collections.singletonList(new CustomerDTO(99L, "John", "Smith", "Doe", 7L)));
+
+        assertThat(customerRepository.findById(saved.get(0).getId()).get().getVersion()).isZero();
+    }
+
+    @Test
+    void SaveCustomer_NewWithClientVersion_StartsAtZero() throws Exception {
+        CustomerDTO saved = customerService.saveCustomer(new CustomerDTO(null, "John", "Smith", "Doe", 7L));
+
+        assertThat(customerRepository.findById(saved.getId()).get().getVersion()).isZero();
+    }
+
+    // Read past the second-level cache, which does not see writes made on another connection.
+    private String storedFirstName(Long id) {
+        return new JdbcTemplate(dataSource).queryForObject("SELECT FIRST_NAME FROM CUSTOMER WHERE ID = ?", String.class, id);
+    }
+
+    // Commits on its own connection, outside the transaction the service is running in.
+    private void concurrentRename(Long id, String firstName) {
+        try (Connection connection = dataSource.getConnection()) {
+            new JdbcTemplate(new SingleConnectionDataSource(connection, true)).update(
+                    "UPDATE CUSTOMER SET FIRST_NAME = ?, VERSION = VERSION + 1 WHERE ID = ?", firstName, id);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Configuration
+    @EnableTransactionManagement
+    @EnableJpaRepositories(basePackageClasses = CustomerRepository.class)
+    @EnableJpaAuditing(auditorAwareRef = "auditorAware")
+    @Import({CustomerServiceImpl.class, CustomerMapper.class, CustomerSearchIndex.class, ObjectMapper.class,
+            HibernateCacheConfig.class})
+    static class Config {
+
+        @Bean
+        public DataSource dataSource() {
+            return new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        }
+
+        @Bean
+        public LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource,
+                                                                           HibernatePropertiesCustomizer hibernateCacheManagerCustomizer) {
+            Map<String, Object> hibernateProperties = new HashMap<>();
+            hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, "true");
+            hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            hibernateProperties.put(AvailableSettings.GENERATE_STATISTICS, "true");
+            hibernateCacheManagerCustomizer.customize(hibernateProperties);
+            HibernateJpaVendorAdapter vendorAdapter = new HibernateJpaVendorAdapter();
+            vendorAdapter.setGenerateDdl(true);
+            LocalContainerEntityManagerFactoryBean entityManagerFactory = new LocalContainerEntityManagerFactoryBean();
+            entityManagerFactory.setDataSource(dataSource);
+            entityManagerFactory.setJpaVendorAdapter(vendorAdapter);
+            entityManagerFactory.setPackagesToScan(Customer.class.getPackage().getName());
+            entityManagerFactory.setJpaPropertyMap(hibernateProperties);
+            return entityManagerFactory;
+        }
+
+        @Bean
+        public JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+            return new JpaTransactionManager(entityManagerFactory);
+        }
+
+        // Writes ask for the auditor before their statement is sent, which is where the concurrent write is slipped in.
+        @Bean
+        public AuditorAware<String> auditorAware() {
+            return () -> {
+                Runnable runnable = beforeWrite;
+                beforeWrite = null;
+                if (runnable != null) {
+                    runnable.run();
+                }
+                return Optional.of("sa");
+            };
+        }
+    }
+}
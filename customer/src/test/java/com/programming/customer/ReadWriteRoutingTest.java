@@ -0,0 +1,213 @@
+package com.programming.customer;
+
+import com.programming.customer.config.DataSourceRoutingConfig;
+import com.programming.customer.config.ReadWriteRoutingDataSource;
+import com.programming.customer.persistence.model.Customer;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.Database;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routing over three in-memory H2 databases standing in for a primary and two replicas; each one names itself.
+ */
+class ReadWriteRoutingTest {
+
+    private static final String NODE_QUERY = "SELECT NAME FROM NODE";
+
+    private ReadWriteRoutingDataSource routingDataSource;
+
+    private HikariDataSource firstReplica;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate readWriteTransaction;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @AfterEach
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        routingDataSource.close();
+    }
+
+    @Test
+    void Query_NoTransaction_RoutedToPrimary() {
+        route(ReadWriteRoutingDataSource.Balancing.ROUND_ROBIN);
+
+        assertThat(jdbcTemplate.queryForObject(NODE_QUERY, String.class)).isEqualTo("primary");
+    }
+
+    @Test
+    void Query_ReadWriteTransaction_RoutedToPrimary() {
+        route(ReadWriteRoutingDataSource.Balancing.ROUND_ROBIN);
+
+        String node = readWriteTransaction.execute(status -> jdbcTemplate.queryForObject(NODE_QUERY, String.class));
+        assertThat(node).isEqualTo("primary");
+    }
+
+    @Test
+    void Query_ReadOnlyTransactions_RoundRobinOverReplicas() {
+        route(ReadWriteRoutingDataSource.Balancing.ROUND_ROBIN);
+
+        assertThat(readOnlyNode()).isEqualTo("replica-1");
+        assertThat(readOnlyNode()).isEqualTo("replica-2");
+        assertThat(readOnlyNode()).isEqualTo("replica-1");
+    }
+
+    @Test
+    void Query_LeastConnections_BusyReplicaAvoided() throws Exception {
+        route(ReadWriteRoutingDataSource.Balancing.LEAST_CONNECTIONS);
+
+        try (Connection ignored = firstReplica.getConnection()) {
+            assertThat(readOnlyNode()).isEqualTo("replica-2");
+            assertThat(readOnlyNode()).isEqualTo("replica-2");
+        }
+    }
+
+    @Test
+    void Query_ReadOnlyAfterWriteInSameRequest_RoutedToPrimary() {
+        route(ReadWriteRoutingDataSource.Balancing.ROUND_ROBIN);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        readWriteTransaction.execute(status -> jdbcTemplate.update("UPDATE NODE SET NAME = NAME"));
+        assertThat(readOnlyNode()).isEqualTo("primary");
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        assertThat(readOnlyNode()).startsWith("replica-");
+    }
+
+    @Test
+    void Query_ReadOnlyReadingFromPrimary_RoutedToPrimaryForThatTransactionOnly() {
+        route(ReadWriteRoutingDataSource.Balancing.ROUND_ROBIN);
+
+        String node = readOnlyTransaction.execute(status -> {
+            ReadWriteRoutingDataSource.readFromPrimary();
+            return jdbcTemplate.queryForObject(NODE_QUERY, String.class);
+        });
+        assertThat(node).isEqualTo("primary");
+        assertThat(readOnlyNode()).isEqualTo("replica-1");
+    }
+
+    @Test
+    void Jpa_ReadOnlyReadingFromPrimary_RoutedToPrimary() {
+        route(ReadWriteRoutingDataSource.Balancing.ROUND_ROBIN);
+        LocalContainerEntityManagerFactoryBean entityManagerFactoryBean = entityManagerFactory();
+        EntityManagerFactory entityManagerFactory = entityManagerFactoryBean.getObject();
+        TransactionTemplate readOnlyJpaTransaction = new TransactionTemplate(new JpaTransactionManager(entityManagerFactory));
+        readOnlyJpaTransaction.setReadOnly(true);
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(entityManager));
+        try {
+            String primaryReadNode = readOnlyJpaTransaction.execute(status -> {
+                ReadWriteRoutingDataSource.readFromPrimary();
+                return nodeOf(entityManager);
+            });
+            String nextReadNode = readOnlyJpaTransaction.execute(status -> nodeOf(entityManager));
+
+            assertThat(primaryReadNode).isEqualTo("primary");
+            assertThat(nextReadNode).isEqualTo("replica-1");
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            entityManager.close();
+            entityManagerFactoryBean.destroy();
+        }
+    }
+
+    @Test
+    void Jpa_WriteAfterReadOnlyInSameRequest_RoutedToPrimary() {
+        route(ReadWriteRoutingDataSource.Balancing.ROUND_ROBIN);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        LocalContainerEntityManagerFactoryBean entityManagerFactoryBean = entityManagerFactory();
+        EntityManagerFactory entityManagerFactory = entityManagerFactoryBean.getObject();
+        JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory);
+        TransactionTemplate readOnlyJpaTransaction = new TransactionTemplate(transactionManager);
+        readOnlyJpaTransaction.setReadOnly(true);
+        // Open-in-view: one EntityManager spans every transaction of the request.
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(entityManager));
+        try {
+            String readNode = readOnlyJpaTransaction.execute(status -> nodeOf(entityManager));
+            String writeNode = new TransactionTemplate(transactionManager).execute(status -> {
+                entityManager.createNativeQuery("UPDATE NODE SET NAME = NAME").executeUpdate();
+                return nodeOf(entityManager);
+            });
+
+            assertThat(readNode).isEqualTo("replica-1");
+            assertThat(writeNode).isEqualTo("primary");
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            entityManager.close();
+            entityManagerFactoryBean.destroy();
+        }
+    }
+
+    private String readOnlyNode() {
+        return readOnlyTransaction.execute(status -> jdbcTemplate.queryForObject(NODE_QUERY, String.class));
+    }
+
+    private void route(ReadWriteRoutingDataSource.Balancing balancing) {
+        firstReplica = database("replica-1");
+        routingDataSource = new ReadWriteRoutingDataSource(database("primary"),
+                Arrays.asList(firstReplica, database("replica-2")), balancing);
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWriteTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    private static String nodeOf(EntityManager entityManager) {
+        return (String) entityManager.createNativeQuery(NODE_QUERY).getSingleResult();
+    }
+
+    // Hibernate as Spring Boot sets it up, with the routing configuration's customizations.
+    private LocalContainerEntityManagerFactoryBean entityManagerFactory() {
+        Map<String, Object> hibernateProperties = new HashMap<>();
+        new DataSourceRoutingConfig().routingConnectionHandlingCustomizer().customize(hibernateProperties);
+        HibernateJpaVendorAdapter vendorAdapter = new HibernateJpaVendorAdapter();
+        vendorAdapter.setDatabase(Database.H2);
+        LocalContainerEntityManagerFactoryBean entityManagerFactory = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactory.setDataSource(jdbcTemplate.getDataSource());
+        entityManagerFactory.setJpaVendorAdapter(vendorAdapter);
+        entityManagerFactory.setPackagesToScan(Customer.class.getPackage().getName());
+        entityManagerFactory.setJpaPropertyMap(hibernateProperties);
+        entityManagerFactory.afterPropertiesSet();
+        return entityManagerFactory;
+    }
+
+    // The database lives as long as the pool holds a connection to it, so every test starts from a fresh one.
+    private static HikariDataSource database(String name) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + name);
+        dataSource.setMinimumIdle(1);
+        dataSource.setMaximumPoolSize(2);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE NODE (NAME VARCHAR(20))");
+        jdbcTemplate.update("INSERT INTO NODE VALUES (?)", name);
+        return dataSource;
+    }
+}
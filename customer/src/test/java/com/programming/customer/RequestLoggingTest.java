@@ -0,0 +1,121 @@
+package com.programming.customer;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import com.programming.customer.config.RequestSummaryFilter;
+import com.programming.customer.config.SqlLoggingTurboFilter;
+import com.programming.customer.util.RequestStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestLoggingTest {
+
+    private RequestSummaryFilter requestSummaryFilter;
+
+    private SqlLoggingTurboFilter sqlLoggingTurboFilter;
+
+    private LoggerContext loggerContext;
+
+    @BeforeEach
+    void setUp() {
+        requestSummaryFilter = new RequestSummaryFilter();
+        ReflectionTestUtils.setField(requestSummaryFilter, "debugSampleRate", 0.0);
+        ReflectionTestUtils.setField(requestSummaryFilter, "sqlOnDemandEnabled", true);
+        sqlLoggingTurboFilter = new SqlLoggingTurboFilter();
+        loggerContext = new LoggerContext();
+    }
+
+    @AfterEach
+    void tearDown() {
+        MDC.clear();
+    }
+
+    @Test
+    void DoFilter_CollectsRowsAndBytesForSummary() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/customer/all");
+        AtomicReference<String> sqlLogging = new AtomicReference<>();
+
+        requestSummaryFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                RequestStats.addRows(2);
+                sqlLogging.set(MDC.get(SqlLoggingTurboFilter.MDC_KEY));
+                resp.getOutputStream().write(new byte[]{'[', ']'});
+            }
+        }));
+
+        RequestStats requestStats = (RequestStats) request.getAttribute(RequestStats.ATTRIBUTE);
+        assertThat(requestStats.getRows()).isEqualTo(2);
+        assertThat(requestStats.getBytes()).isEqualTo(2);
+        assertThat(sqlLogging.get()).isNull();
+        assertThat(RequestStats.current()).isNull();
+    }
+
+    @Test
+    void DoFilter_SqlHeader_EnablesSqlLoggingForRequestOnly() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/customer/1");
+        request.addHeader(RequestSummaryFilter.SQL_LOGGING_HEADER, "true");
+        AtomicReference<String> sqlLogging = new AtomicReference<>();
+
+        requestSummaryFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) {
+                sqlLogging.set(MDC.get(SqlLoggingTurboFilter.MDC_KEY));
+            }
+        }));
+
+        assertThat(sqlLogging.get()).isEqualTo("true");
+        assertThat(MDC.get(SqlLoggingTurboFilter.MDC_KEY)).isNull();
+    }
+
+    @Test
+    void DoFilter_SqlHeader_IgnoredWhenDisabled() throws Exception {
+        ReflectionTestUtils.setField(requestSummaryFilter, "sqlOnDemandEnabled", false);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/customer/1");
+        request.addHeader(RequestSummaryFilter.SQL_LOGGING_HEADER, "true");
+        AtomicReference<String> sqlLogging = new AtomicReference<>();
+
+        requestSummaryFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) {
+                sqlLogging.set(MDC.get(SqlLoggingTurboFilter.MDC_KEY));
+            }
+        }));
+
+        assertThat(sqlLogging.get()).isNull();
+    }
+
+    @Test
+    void Decide_SqlLoggerWithMdcKey_Accepted() {
+        MDC.put(SqlLoggingTurboFilter.MDC_KEY, "true");
+
+        assertThat(decide("org.hibernate.SQL")).isEqualTo(FilterReply.ACCEPT);
+        assertThat(decide("org.hibernate.type.descriptor.sql.BasicBinder")).isEqualTo(FilterReply.ACCEPT);
+        assertThat(decide("com.programming.customer.service.CustomerServiceImpl")).isEqualTo(FilterReply.NEUTRAL);
+    }
+
+    @Test
+    void Decide_SqlLoggerWithoutMdcKey_Neutral() {
+        assertThat(decide("org.hibernate.SQL")).isEqualTo(FilterReply.NEUTRAL);
+    }
+
+    private FilterReply decide(String loggerName) {
+        return sqlLoggingTurboFilter.decide(null, loggerContext.getLogger(loggerName),
+                Level.DEBUG, null, null, null);
+    }
+}
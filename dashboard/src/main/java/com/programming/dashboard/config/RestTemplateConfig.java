@@ -1,18 +1,145 @@
 package com.programming.dashboard.config;
 
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
 import com.programming.dashboard.handler.RestTemplateResponseErrorHandler;
+import com.programming.dashboard.util.Hedger;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 @Configuration
 public class RestTemplateConfig {
 
+    private static final String SMILE = "smile";
+
+    @Value("${customer.app.client.max-connections}")
+    private int maxConnections;
+
+    @Value("${customer.app.client.max-connections-per-route}")
+    private int maxConnectionsPerRoute;
+
+    @Value("${customer.app.client.connect-timeout}")
+    private String connectTimeout;
+
+    @Value("${customer.app.client.read-timeout}")
+    private String readTimeout;
+
+    @Value("${customer.app.client.connection-request-timeout}")
+    private String connectionRequestTimeout;
+
+    @Value("${customer.app.client.keep-alive}")
+    private String keepAlive;
+
+    @Value("${customer.app.client.idle-eviction}")
+    private String idleEviction;
+
+    @Value("${customer.app.client.wire-format}")
+    private String wireFormat;
+
+    @Bean(destroyMethod = "shutdown")
+    public PoolingHttpClientConnectionManager customerConnectionManager() {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+        // Re-check connections that sat idle for a while before handing them out.
+        connectionManager.setValidateAfterInactivity(2000);
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient customerHttpClient(PoolingHttpClientConnectionManager customerConnectionManager) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(toMillis(connectTimeout))
+                .setSocketTimeout(toMillis(readTimeout))
+                .setConnectionRequestTimeout(toMillis(connectionRequestTimeout))
+                .build();
+        long keepAliveMillis = toMillis(keepAlive);
+        ConnectionKeepAliveStrategy keepAliveStrategy = (response, context) -> {
+            long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return serverKeepAlive > 0 ? Math.min(serverKeepAlive, keepAliveMillis) : keepAliveMillis;
+        };
+
+        // Content compression is on by default: requests send Accept-Encoding: gzip,deflate and compressed responses are
+        // inflated transparently.
+        return HttpClients.custom()
+                .setConnectionManager(customerConnectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(keepAliveStrategy)
+                .evictExpiredConnections()
+                .evictIdleConnections(toMillis(idleEviction), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
     @Bean
-    public RestTemplate restTemplate(RestTemplateBuilder builder) {
-        return builder
+    public MeterBinder customerConnectionPoolMetrics(PoolingHttpClientConnectionManager customerConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(customerConnectionManager, "customer-service");
+    }
+
+    @Bean
+    public RestTemplate restTemplate(RestTemplateBuilder builder, CloseableHttpClient customerHttpClient,
+                                     Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        RestTemplate restTemplate = builder
+                .requestFactory(() -> new HedgeAwareRequestFactory(customerHttpClient))
                 .errorHandler(new RestTemplateResponseErrorHandler())
                 .build();
+        if (SMILE.equals(wireFormat)) {
+            // Ahead of JSON, so request bodies go out as Smile and Accept lists Smile first. A customer service
+            // without Smile support still answers in JSON, which remains acceptable.
+            List<HttpMessageConverter<?>> messageConverters = restTemplate.getMessageConverters();
+            messageConverters.removeIf(MappingJackson2SmileHttpMessageConverter.class::isInstance);
+            messageConverters.add(0, smileHttpMessageConverter(objectMapperBuilder));
+        }
+        return restTemplate;
+    }
+
+    private static MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        // Same settings as the customer service: repeated names are sent as back-references.
+        SmileFactory smileFactory = SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+        return new MappingJackson2SmileHttpMessageConverter(builder.createXmlMapper(false).factory(smileFactory).build());
+    }
+
+    /**
+     * Lets a hedged call that loses abort its in-flight request, releasing the connection instead of waiting it out.
+     */
+    private static class HedgeAwareRequestFactory extends HttpComponentsClientHttpRequestFactory {
+
+        HedgeAwareRequestFactory(CloseableHttpClient httpClient) {
+            super(httpClient);
+        }
+
+        @Override
+        protected HttpUriRequest createHttpUriRequest(HttpMethod httpMethod, URI uri) {
+            HttpUriRequest request = super.createHttpUriRequest(httpMethod, uri);
+            Hedger.onCancel(request::abort);
+            return request;
+        }
+    }
+
+    private static int toMillis(String duration) {
+        return (int) DurationStyle.detectAndParse(duration).toMillis();
     }
 }
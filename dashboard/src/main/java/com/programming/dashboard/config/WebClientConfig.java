@@ -0,0 +1,78 @@
+package com.programming.dashboard.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.programming.dashboard.handler.WebClientResponseErrorFilter;
+import io.netty.channel.ChannelOption;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Non-blocking client for the customer service, used when dashboard.reactive.enabled is set. Pool size and timeouts
+ * share the customer.app.client.* settings of the RestTemplate client.
+ */
+@Configuration
+@ConditionalOnProperty(name = "dashboard.reactive.enabled", havingValue = "true")
+public class WebClientConfig {
+
+    public static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    @Value("${customer.app.uri}")
+    private String customerAppUri;
+
+    @Value("${customer.app.client.max-connections}")
+    private int maxConnections;
+
+    @Value("${customer.app.client.connect-timeout}")
+    private String connectTimeout;
+
+    @Value("${customer.app.client.read-timeout}")
+    private String readTimeout;
+
+    @Value("${customer.app.client.connection-request-timeout}")
+    private String connectionRequestTimeout;
+
+    @Value("${customer.app.client.keep-alive}")
+    private String keepAlive;
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider customerConnectionProvider() {
+        return ConnectionProvider.builder("customer-service")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(DurationStyle.detectAndParse(connectionRequestTimeout))
+                .maxIdleTime(DurationStyle.detectAndParse(keepAlive))
+                .build();
+    }
+
+    @Bean
+    public WebClient customerWebClient(WebClient.Builder builder, ConnectionProvider customerConnectionProvider,
+                                       ObjectMapper objectMapper) {
+        long readTimeoutMillis = DurationStyle.detectAndParse(readTimeout).toMillis();
+        HttpClient httpClient = HttpClient.create(customerConnectionProvider)
+                // Sends Accept-Encoding: gzip and inflates compressed responses.
+                .compress(true)
+                .tcpConfiguration(tcpClient -> tcpClient.option(ChannelOption.CONNECT_TIMEOUT_MILLIS,
+                        (int) DurationStyle.detectAndParse(connectTimeout).toMillis()))
+                // Added per request; reactor-netty removes it again when the connection is released to the pool.
+                .doOnRequest((request, connection) ->
+                        connection.addHandlerLast(new ReadTimeoutHandler(readTimeoutMillis, TimeUnit.MILLISECONDS)));
+
+        return builder
+                .baseUrl(customerAppUri)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(codecs -> codecs.customCodecs().register(new Jackson2JsonDecoder(objectMapper, NDJSON)))
+                .filter(new WebClientResponseErrorFilter())
+                .build();
+    }
+}
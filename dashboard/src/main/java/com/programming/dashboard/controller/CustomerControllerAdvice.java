@@ -11,7 +11,7 @@ import org.springframework.web.context.request.WebRequest;
 
 import java.util.Date;
 
-@ControllerAdvice(assignableTypes =  CustomerDashboardController.class)
+@ControllerAdvice(assignableTypes = {CustomerDashboardController.class, ReactiveCustomerDashboardController.class})
 public class CustomerControllerAdvice {
 
     @ExceptionHandler(HttpServerErrorException.class)
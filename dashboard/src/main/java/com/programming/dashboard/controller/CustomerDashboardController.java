@@ -1,9 +1,11 @@
 package com.programming.dashboard.controller;
 
 import com.programming.dashboard.dto.CustomerDTO;
+import com.programming.dashboard.dto.CustomerPageDTO;
 import com.programming.dashboard.service.CustomerService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -12,6 +14,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
@@ -20,14 +23,16 @@ import java.util.List;
 @RequiredArgsConstructor
 @RequestMapping("/dashboard/customer")
 @Slf4j
+@ConditionalOnProperty(name = "dashboard.reactive.enabled", havingValue = "false", matchIfMissing = true)
 public class CustomerDashboardController {
 
    private final CustomerService customerService;
 
     @GetMapping("/all")
-    public ResponseEntity<List<CustomerDTO>> getAllCustomers(){
-        log.info("Attempting to get all customers");
-        return customerService.findCustomers();
+    public ResponseEntity<CustomerPageDTO> getAllCustomers(@RequestParam(value = "after", defaultValue = "0") Long after,
+                                                           @RequestParam(value = "limit", defaultValue = "100") Integer limit){
+        log.info("Attempting to get customers after id={}, limit={}", after, limit);
+        return customerService.findCustomers(after, limit);
     }
 
     @GetMapping("/{id}")
@@ -36,6 +41,13 @@ public class CustomerDashboardController {
         return customerService.findCustomerById(customerId);
     }
 
+    @GetMapping("/search")
+    public ResponseEntity<List<CustomerDTO>> searchCustomers(@RequestParam("q") String query,
+                                                             @RequestParam(value = "limit", defaultValue = "10") Integer limit) {
+        log.debug("Attempting to search customers matching '{}', limit={}", query, limit);
+        return customerService.searchCustomers(query, limit);
+    }
+
     @PostMapping("/save")
     public ResponseEntity<CustomerDTO> createCustomer(@Validated @RequestBody CustomerDTO customerDTO) {
         log.info("Attempting to create new customer. first_name={}, middle_name={}, last_name={}",
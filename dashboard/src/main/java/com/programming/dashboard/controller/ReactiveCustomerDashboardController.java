@@ -0,0 +1,77 @@
+package com.programming.dashboard.controller;
+
+import com.programming.dashboard.dto.CustomerDTO;
+import com.programming.dashboard.dto.CustomerPageDTO;
+import com.programming.dashboard.service.ReactiveCustomerService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Non-blocking variant of {@link CustomerDashboardController}, enabled with dashboard.reactive.enabled. Handlers return
+ * as soon as the WebClient call is issued, so no servlet thread waits on the customer service.
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/dashboard/customer")
+@Slf4j
+@ConditionalOnProperty(name = "dashboard.reactive.enabled", havingValue = "true")
+public class ReactiveCustomerDashboardController {
+
+    private final ReactiveCustomerService reactiveCustomerService;
+
+    @GetMapping(value = "/all", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<CustomerPageDTO> getAllCustomers(@RequestParam(value = "after", defaultValue = "0") Long after,
+                                                 @RequestParam(value = "limit", defaultValue = "100") Integer limit) {
+        log.info("Attempting to get customers after id={}, limit={}", after, limit);
+        return reactiveCustomerService.findCustomers(after, limit);
+    }
+
+    @GetMapping(value = "/all", produces = MediaType.APPLICATION_STREAM_JSON_VALUE)
+    public Flux<CustomerDTO> streamAllCustomers() {
+        log.info("Attempting to stream all customers");
+        return reactiveCustomerService.streamCustomers();
+    }
+
+    @GetMapping("/{id}")
+    public Mono<List<CustomerDTO>> findCustomerById(@PathVariable(value = "id") Long customerId) {
+        log.info("Attempting to search customer with id={}", customerId);
+        return reactiveCustomerService.findCustomerById(customerId);
+    }
+
+    @GetMapping("/search")
+    public Mono<List<CustomerDTO>> searchCustomers(@RequestParam("q") String query,
+                                                   @RequestParam(value = "limit", defaultValue = "10") Integer limit) {
+        log.debug("Attempting to search customers matching '{}', limit={}", query, limit);
+        return reactiveCustomerService.searchCustomers(query, limit);
+    }
+
+    @PostMapping("/save")
+    public Mono<CustomerDTO> createCustomer(@Validated @RequestBody CustomerDTO customerDTO) {
+        log.info("Attempting to create new customer. first_name={}, middle_name={}, last_name={}",
+                customerDTO.getFirstName(), customerDTO.getMiddleName(), customerDTO.getLastName());
+        return reactiveCustomerService.saveCustomer(customerDTO);
+    }
+
+    @PutMapping("/update/{id}")
+    public Mono<CustomerDTO> updateCustomer(@PathVariable(value = "id") Long customerId,
+                                            @Validated @RequestBody CustomerDTO customerDTO) {
+        log.info("Attempting to update customer with id={}", customerId);
+        customerDTO.setId(customerId);
+        return reactiveCustomerService.updateCustomer(customerDTO);
+    }
+}
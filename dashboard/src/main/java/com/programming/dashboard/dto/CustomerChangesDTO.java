@@ -0,0 +1,18 @@
+package com.programming.dashboard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor @NoArgsConstructor
+public class CustomerChangesDTO {
+
+    private List<CustomerDTO> customers;
+
+    private String next;
+
+    private boolean hasMore;
+}
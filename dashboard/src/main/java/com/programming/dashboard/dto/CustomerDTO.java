@@ -15,5 +15,11 @@ public class CustomerDTO {
     private String middleName;
 
     private String lastName;
+
+    private Long version;
+
+    public CustomerDTO(Long id, String firstName, String middleName, String lastName) {
+        this(id, firstName, middleName, lastName, null);
+    }
 }
 
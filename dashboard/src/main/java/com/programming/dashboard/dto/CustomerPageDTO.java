@@ -0,0 +1,16 @@
+package com.programming.dashboard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor @NoArgsConstructor
+public class CustomerPageDTO {
+
+    private List<CustomerDTO> customers;
+
+    private Long next;
+}
@@ -0,0 +1,33 @@
+package com.programming.dashboard.handler;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebClient counterpart of {@link RestTemplateResponseErrorHandler}: error statuses from the customer service become
+ * the same HttpClientErrorException / HttpServerErrorException, so CustomerControllerAdvice maps them unchanged.
+ */
+@Slf4j
+public class WebClientResponseErrorFilter implements ExchangeFilterFunction {
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return next.exchange(request).flatMap(response -> {
+            HttpStatus status = response.statusCode();
+            if (!status.isError()) {
+                return Mono.just(response);
+            }
+            log.error("URL: {}, HttpMethod: {}, ResponseBody: {}", request.url(), request.method(), status.getReasonPhrase());
+            // Drain the body so the connection goes back to the pool.
+            return response.releaseBody().then(Mono.error(status.is4xxClientError()
+                    ? new HttpClientErrorException(status) : new HttpServerErrorException(status)));
+        });
+    }
+}
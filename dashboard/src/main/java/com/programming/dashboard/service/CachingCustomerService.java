@@ -0,0 +1,109 @@
+package com.programming.dashboard.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.programming.dashboard.dto.CustomerChangesDTO;
+import com.programming.dashboard.dto.CustomerDTO;
+import com.programming.dashboard.dto.CustomerPageDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Near-cache in front of the customer service. Reads are served locally; once an entry is older than the refresh
+ * interval the stale value is still returned while a background reload replaces it. Local writes invalidate right away.
+ */
+@Service
+@Primary
+@Slf4j
+@ConditionalOnProperty(name = "customer.replica.enabled", havingValue = "false", matchIfMissing = true)
+public class CachingCustomerService implements CustomerService, MeterBinder {
+
+    private final CustomerService customerService;
+
+    private final LoadingCache<Long, List<CustomerDTO>> customerByIdCache;
+
+    private final LoadingCache<PageKey, CustomerPageDTO> customerPageCache;
+
+    public CachingCustomerService(@Qualifier("customerServiceImpl") CustomerService customerService,
+                                  @Value("${customer.near-cache.maximum-size}") long maximumSize,
+                                  @Value("${customer.near-cache.refresh-after-write}") String refreshAfterWrite,
+                                  @Value("${customer.near-cache.expire-after-write}") String expireAfterWrite) {
+        this.customerService = customerService;
+        this.customerByIdCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .refreshAfterWrite(DurationStyle.detectAndParse(refreshAfterWrite))
+                .expireAfterWrite(DurationStyle.detectAndParse(expireAfterWrite))
+                .recordStats()
+                .build(customerId -> customerService.findCustomerById(customerId).getBody());
+        this.customerPageCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .refreshAfterWrite(DurationStyle.detectAndParse(refreshAfterWrite))
+                .expireAfterWrite(DurationStyle.detectAndParse(expireAfterWrite))
+                .recordStats()
+                .build(pageKey -> customerService.findCustomers(pageKey.getAfter(), pageKey.getLimit()).getBody());
+    }
+
+    @Override
+    public ResponseEntity<CustomerPageDTO> findCustomers(Long after, Integer limit) {
+        return ResponseEntity.ok().body(customerPageCache.get(new PageKey(after, limit)));
+    }
+
+    @Override
+    public ResponseEntity<List<CustomerDTO>> findCustomerById(Long customerId) {
+        return ResponseEntity.ok().body(customerByIdCache.get(customerId));
+    }
+
+    @Override
+    public ResponseEntity<List<CustomerDTO>> searchCustomers(String query, Integer limit) {
+        // Typeahead queries rarely repeat and the customer service answers them from memory; not worth caching.
+        return customerService.searchCustomers(query, limit);
+    }
+
+    @Override
+    public ResponseEntity<CustomerChangesDTO> findCustomerChanges(String since, Integer limit) {
+        return customerService.findCustomerChanges(since, limit);
+    }
+
+    @Override
+    public ResponseEntity<CustomerDTO> saveCustomer(CustomerDTO customerDTO) {
+        ResponseEntity<CustomerDTO> responseEntity = customerService.saveCustomer(customerDTO);
+        invalidate(responseEntity.getBody() == null ? customerDTO.getId() : responseEntity.getBody().getId());
+        return responseEntity;
+    }
+
+    @Override
+    public ResponseEntity<CustomerDTO> updateCustomer(CustomerDTO customerDTO) {
+        try {
+            return customerService.updateCustomer(customerDTO);
+        } finally {
+            // Invalidate even on failure: a conflict means our copy is likely stale too.
+            invalidate(customerDTO.getId());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, customerByIdCache, "customer-near-cache-by-id");
+        CaffeineCacheMetrics.monitor(registry, customerPageCache, "customer-near-cache-pages");
+    }
+
+    private void invalidate(Long customerId) {
+        log.debug("Invalidating near-cache for customer id={}", customerId);
+        if (customerId != null) {
+            customerByIdCache.invalidate(customerId);
+        }
+        // Any page may contain the written customer, and pages are cheap to reload.
+        customerPageCache.invalidateAll();
+    }
+}
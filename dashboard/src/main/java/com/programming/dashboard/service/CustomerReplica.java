@@ -0,0 +1,134 @@
+package com.programming.dashboard.service;
+
+import com.programming.dashboard.dto.CustomerDTO;
+import com.programming.dashboard.dto.CustomerPageDTO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory copy of every customer, laid out column-wise: a sorted {@code long[]} of ids searched by binary search,
+ * with versions and names in parallel arrays. Names are pooled, so the many customers sharing a first or last name
+ * share one string. Ids come from a sequence, so new customers almost always append at the end.
+ */
+public class CustomerReplica {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+
+    private long[] versions = new long[INITIAL_CAPACITY];
+
+    private String[] firstNames = new String[INITIAL_CAPACITY];
+
+    private String[] middleNames = new String[INITIAL_CAPACITY];
+
+    private String[] lastNames = new String[INITIAL_CAPACITY];
+
+    private int size;
+
+    private final Map<String, String> namePool = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Adds the customer or replaces the stored copy, unless the stored copy has a newer version. Changes from the sync
+     * and from local writes may arrive in either order.
+     */
+    public void put(CustomerDTO customerDTO) {
+        long version = customerDTO.getVersion() == null ? 0 : customerDTO.getVersion();
+        lock.writeLock().lock();
+        try {
+            int index = Arrays.binarySearch(ids, 0, size, customerDTO.getId());
+            if (index >= 0) {
+                if (versions[index] > version) {
+                    return;
+                }
+            } else {
+                index = -index - 1;
+                insertAt(index);
+                ids[index] = customerDTO.getId();
+            }
+            versions[index] = version;
+            firstNames[index] = pooled(customerDTO.getFirstName());
+            middleNames[index] = pooled(customerDTO.getMiddleName());
+            lastNames[index] = pooled(customerDTO.getLastName());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a copy of the customer, or null when it is not in the replica.
+     */
+    public CustomerDTO get(long customerId) {
+        lock.readLock().lock();
+        try {
+            int index = Arrays.binarySearch(ids, 0, size, customerId);
+            return index < 0 ? null : toCustomerDTO(index);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Same page as the customer service returns for {@code /all?after=&limit=}.
+     */
+    public CustomerPageDTO findCustomers(long after, int limit) {
+        lock.readLock().lock();
+        try {
+            int index = Arrays.binarySearch(ids, 0, size, after);
+            int from = index >= 0 ? index + 1 : -index - 1;
+            int to = (int) Math.min(size, (long) from + limit);
+            List<CustomerDTO> customerDTOList = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                customerDTOList.add(toCustomerDTO(i));
+            }
+            Long next = to < size && to > from ? ids[to - 1] : null;
+            return new CustomerPageDTO(customerDTOList, next);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private CustomerDTO toCustomerDTO(int index) {
+        return new CustomerDTO(ids[index], firstNames[index], middleNames[index], lastNames[index], versions[index]);
+    }
+
+    private void insertAt(int index) {
+        if (size == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            versions = Arrays.copyOf(versions, capacity);
+            firstNames = Arrays.copyOf(firstNames, capacity);
+            middleNames = Arrays.copyOf(middleNames, capacity);
+            lastNames = Arrays.copyOf(lastNames, capacity);
+        }
+        if (index < size) {
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            System.arraycopy(versions, index, versions, index + 1, size - index);
+            System.arraycopy(firstNames, index, firstNames, index + 1, size - index);
+            System.arraycopy(middleNames, index, middleNames, index + 1, size - index);
+            System.arraycopy(lastNames, index, lastNames, index + 1, size - index);
+        }
+        size++;
+    }
+
+    private String pooled(String name) {
+        return name == null ? null : namePool.computeIfAbsent(name, key -> key);
+    }
+}
@@ -1,16 +1,22 @@
 package com.programming.dashboard.service;
 
+import com.programming.dashboard.dto.CustomerChangesDTO;
 import com.programming.dashboard.dto.CustomerDTO;
+import com.programming.dashboard.dto.CustomerPageDTO;
 import org.springframework.http.ResponseEntity;
 
 import java.util.List;
 
 public interface CustomerService {
 
-    ResponseEntity<List<CustomerDTO>> findCustomers();
+    ResponseEntity<CustomerPageDTO> findCustomers(Long after, Integer limit);
 
     ResponseEntity<List<CustomerDTO>> findCustomerById(Long customerId);
 
+    ResponseEntity<List<CustomerDTO>> searchCustomers(String query, Integer limit);
+
+    ResponseEntity<CustomerChangesDTO> findCustomerChanges(String since, Integer limit);
+
     ResponseEntity<CustomerDTO> saveCustomer(CustomerDTO customerDTO);
 
     ResponseEntity<CustomerDTO> updateCustomer(CustomerDTO customerDTO);
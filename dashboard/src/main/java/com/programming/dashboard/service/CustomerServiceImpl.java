@@ -1,43 +1,173 @@
 package com.programming.dashboard.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.programming.dashboard.dto.CustomerChangesDTO;
 import com.programming.dashboard.dto.CustomerDTO;
+import com.programming.dashboard.dto.CustomerPageDTO;
+import com.programming.dashboard.util.BatchLoader;
+import com.programming.dashboard.util.Hedger;
+import com.programming.dashboard.util.SingleFlight;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 @Data
-public class CustomerServiceImpl implements CustomerService {
+public class CustomerServiceImpl implements CustomerService, MeterBinder {
+
+    private static final String FIND_CUSTOMERS = "findCustomers";
+
+    private static final String FIND_CUSTOMER_BY_ID = "findCustomerById";
+
+    private static final String FIND_CUSTOMERS_BY_IDS = "findCustomersByIds";
+
+    private static final String SEARCH_CUSTOMERS = "searchCustomers";
 
     @Value("${customer.app.uri}")
     private String customerAppUri;
 
+    @Value("${customer.app.batch.window}")
+    private String batchWindow;
+
+    @Value("${customer.app.batch.max-size}")
+    private int batchMaxSize;
+
+    @Value("${customer.app.hedge.enabled}")
+    private boolean hedgeEnabled;
+
+    @Value("${customer.app.hedge.percentile}")
+    private double hedgePercentile;
+
+    @Value("${customer.app.hedge.min-delay}")
+    private String hedgeMinDelay;
+
+    @Value("${customer.app.hedge.budget}")
+    private double hedgeBudget;
+
+    @Value("${customer.app.hedge.max-concurrent}")
+    private int hedgeMaxConcurrent;
+
+    @Value("${customer.app.validator-cache.maximum-size}")
+    private long validatorCacheMaximumSize;
+
     private final RestTemplate restTemplate;
 
+    // Concurrent reads for the same id or page share one outstanding call to the customer service.
+    private final SingleFlight<Long, List<CustomerDTO>> findCustomerByIdFlight = new SingleFlight<>(CustomerServiceImpl::copyOf);
+
+    private final SingleFlight<PageKey, CustomerPageDTO> findCustomersFlight = new SingleFlight<>(CustomerServiceImpl::copyOf);
+
+    // Lookups for different ids made within one batch window go out as a single multi-get.
+    private BatchLoader<Long, CustomerDTO> customerBatchLoader;
+
+    // Slow reads get a second, identical request once they pass the hedge delay; the first response wins. Each
+    // operation has a hedger of its own, so its delay follows that operation's latencies and it spends its own budget.
+    private Map<String, Hedger> hedgers = Collections.emptyMap();
+
+    // Pages are fetched with If-None-Match when a previous copy is known; a 304 reuses that copy.
+    private Cache<PageKey, ValidatedPage> validatedPages;
+
+    private final LongAdder notModifiedCount = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        customerBatchLoader = new BatchLoader<>(this::fetchCustomersByIds, DurationStyle.detectAndParse(batchWindow), batchMaxSize);
+        validatedPages = Caffeine.newBuilder().maximumSize(validatorCacheMaximumSize).build();
+        if (hedgeEnabled) {
+            hedgers = new LinkedHashMap<>();
+            for (String operation : Arrays.asList(FIND_CUSTOMERS, FIND_CUSTOMER_BY_ID, FIND_CUSTOMERS_BY_IDS, SEARCH_CUSTOMERS)) {
+                hedgers.put(operation, new Hedger(hedgePercentile, DurationStyle.detectAndParse(hedgeMinDelay), hedgeBudget,
+                        hedgeMaxConcurrent));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hedgers.values().forEach(Hedger::shutdown);
+    }
+
     @Override
-    public ResponseEntity<List<CustomerDTO>> findCustomers() {
-        log.info("Fetching customers.");
-            ResponseEntity<CustomerDTO[]> responseEntity = restTemplate.getForEntity(customerAppUri.concat("/all"), CustomerDTO[].class);
-            return ResponseEntity.ok().body(Arrays.asList(Objects.requireNonNull(responseEntity.getBody())));
+    public ResponseEntity<CustomerPageDTO> findCustomers(Long after, Integer limit) {
+        PageKey pageKey = new PageKey(after, limit);
+        return ResponseEntity.ok().body(findCustomersFlight.execute(pageKey, () -> {
+            log.info("Fetching customers after id={}, limit={}.", after, limit);
+            ValidatedPage validatedPage = validatedPages.getIfPresent(pageKey);
+            HttpHeaders headers = new HttpHeaders();
+            if (validatedPage != null) {
+                headers.setIfNoneMatch(validatedPage.getETag());
+            }
+            ResponseEntity<CustomerPageDTO> responseEntity = hedged(FIND_CUSTOMERS, () -> restTemplate.exchange(
+                    customerAppUri.concat("/all?after={after}&limit={limit}"), HttpMethod.GET, new HttpEntity<>(headers),
+                    CustomerPageDTO.class, after, limit));
+
+            if (validatedPage != null && responseEntity.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+                notModifiedCount.increment();
+                return copyOf(validatedPage.getCustomerPageDTO());
+            }
+            CustomerPageDTO customerPageDTO = Objects.requireNonNull(responseEntity.getBody());
+            if (responseEntity.getHeaders().getETag() != null) {
+                validatedPages.put(pageKey, new ValidatedPage(responseEntity.getHeaders().getETag(), copyOf(customerPageDTO)));
+            }
+            return customerPageDTO;
+        }));
     }
 
     @Override
     public ResponseEntity<List<CustomerDTO>> findCustomerById(Long customerId) {
-        log.info("Fetching customer with id {}", customerId);
-        ResponseEntity<CustomerDTO[]> responseEntity = restTemplate.getForEntity(customerAppUri.concat("/{id}"), CustomerDTO[].class, Long.toString(customerId));
+        return ResponseEntity.ok().body(findCustomerByIdFlight.execute(customerId, () -> {
+            CustomerDTO customerDTO = customerBatchLoader.load(customerId);
+            if (customerDTO == null) {
+                throw new HttpClientErrorException(HttpStatus.NOT_FOUND);
+            }
+            return Collections.singletonList(customerDTO);
+        }));
+    }
+
+    @Override
+    public ResponseEntity<List<CustomerDTO>> searchCustomers(String query, Integer limit) {
+        log.debug("Searching customers matching '{}', limit={}.", query, limit);
+        ResponseEntity<CustomerDTO[]> responseEntity = hedged(SEARCH_CUSTOMERS, () -> restTemplate.getForEntity(
+                customerAppUri.concat("/search?q={q}&limit={limit}"), CustomerDTO[].class, query, limit));
         return ResponseEntity.ok().body(Arrays.asList(Objects.requireNonNull(responseEntity.getBody())));
     }
 
+    @Override
+    public ResponseEntity<CustomerChangesDTO> findCustomerChanges(String since, Integer limit) {
+        log.debug("Fetching customer changes since={}, limit={}.", since, limit);
+        ResponseEntity<CustomerChangesDTO> responseEntity = restTemplate.getForEntity(
+                customerAppUri.concat("/changes?since={since}&limit={limit}"), CustomerChangesDTO.class, since, limit);
+        return ResponseEntity.ok().body(responseEntity.getBody());
+    }
+
     @Override
     public ResponseEntity<CustomerDTO> saveCustomer(CustomerDTO customerDTO) {
         log.info("Creating new customer. id={}, first_name={}, middle_name={}, last_name={}",
@@ -56,4 +186,75 @@ public class CustomerServiceImpl implements CustomerService {
                 HttpMethod.PUT, request, CustomerDTO.class, String.valueOf(customerDTO.getId()));
         return ResponseEntity.ok().body(responseEntity.getBody());
     }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("customer.client.coalesced", findCustomerByIdFlight, SingleFlight::coalescedCount)
+                .description("Customer service calls served by another request already in flight")
+                .tag("operation", FIND_CUSTOMER_BY_ID)
+                .register(registry);
+        FunctionCounter.builder("customer.client.coalesced", findCustomersFlight, SingleFlight::coalescedCount)
+                .description("Customer service calls served by another request already in flight")
+                .tag("operation", FIND_CUSTOMERS)
+                .register(registry);
+        FunctionCounter.builder("customer.client.not-modified", notModifiedCount, LongAdder::sum)
+                .description("Customer pages revalidated with a 304 instead of being downloaded again")
+                .register(registry);
+        hedgers.forEach((operation, hedger) -> {
+            FunctionCounter.builder("customer.client.hedges", hedger, Hedger::hedgeCount)
+                    .description("Hedge requests sent to the customer service")
+                    .tag("operation", operation)
+                    .register(registry);
+            FunctionCounter.builder("customer.client.hedge.wins", hedger, Hedger::hedgeWinCount)
+                    .description("Hedge requests that answered before the original request")
+                    .tag("operation", operation)
+                    .register(registry);
+            Gauge.builder("customer.client.hedge.delay", hedger, Hedger::hedgeDelayMillis)
+                    .description("Current delay before a read is hedged")
+                    .tag("operation", operation)
+                    .baseUnit("milliseconds")
+                    .register(registry);
+        });
+    }
+
+    private Map<Long, CustomerDTO> fetchCustomersByIds(List<Long> customerIds) {
+        if (customerIds.size() == 1) {
+            return fetchCustomerById(customerIds.get(0));
+        }
+        log.info("Fetching customers with ids {}", customerIds);
+        String ids = customerIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+        ResponseEntity<CustomerDTO[]> responseEntity = hedged(FIND_CUSTOMERS_BY_IDS, () -> restTemplate.getForEntity(customerAppUri.concat("?ids={ids}"), CustomerDTO[].class, ids));
+        return Arrays.stream(Objects.requireNonNull(responseEntity.getBody()))
+                .collect(Collectors.toMap(CustomerDTO::getId, Function.identity()));
+    }
+
+    // A batch of one goes to /{id}, which the customer service answers from its lookup cache of hot customers.
+    private Map<Long, CustomerDTO> fetchCustomerById(Long customerId) {
+        log.info("Fetching customer with id {}", customerId);
+        try {
+            ResponseEntity<CustomerDTO[]> responseEntity = hedged(FIND_CUSTOMER_BY_ID, () -> restTemplate.getForEntity(customerAppUri.concat("/{id}"), CustomerDTO[].class, Long.toString(customerId)));
+            return Arrays.stream(Objects.requireNonNull(responseEntity.getBody()))
+                    .collect(Collectors.toMap(CustomerDTO::getId, Function.identity()));
+        } catch (HttpClientErrorException e) {
+            if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
+                return Collections.emptyMap();
+            }
+            throw e;
+        }
+    }
+
+    private <T> T hedged(String operation, Supplier<T> call) {
+        Hedger hedger = hedgers.get(operation);
+        return hedger == null ? call.get() : hedger.execute(call);
+    }
+
+    private static CustomerPageDTO copyOf(CustomerPageDTO customerPageDTO) {
+        return new CustomerPageDTO(copyOf(customerPageDTO.getCustomers()), customerPageDTO.getNext());
+    }
+
+    private static List<CustomerDTO> copyOf(List<CustomerDTO> customerDTOs) {
+        return customerDTOs.stream()
+                .map(dto -> new CustomerDTO(dto.getId(), dto.getFirstName(), dto.getMiddleName(), dto.getLastName(), dto.getVersion()))
+                .collect(Collectors.toList());
+    }
 }
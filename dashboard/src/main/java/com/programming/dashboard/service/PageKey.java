@@ -0,0 +1,9 @@
+package com.programming.dashboard.service;
+
+import lombok.Data;
+
+@Data
+class PageKey {
+    private final Long after;
+    private final Integer limit;
+}
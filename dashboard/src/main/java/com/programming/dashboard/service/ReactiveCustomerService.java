@@ -0,0 +1,23 @@
+package com.programming.dashboard.service;
+
+import com.programming.dashboard.dto.CustomerDTO;
+import com.programming.dashboard.dto.CustomerPageDTO;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+public interface ReactiveCustomerService {
+
+    Mono<CustomerPageDTO> findCustomers(Long after, Integer limit);
+
+    Flux<CustomerDTO> streamCustomers();
+
+    Mono<List<CustomerDTO>> findCustomerById(Long customerId);
+
+    Mono<List<CustomerDTO>> searchCustomers(String query, Integer limit);
+
+    Mono<CustomerDTO> saveCustomer(CustomerDTO customerDTO);
+
+    Mono<CustomerDTO> updateCustomer(CustomerDTO customerDTO);
+}
@@ -0,0 +1,84 @@
+package com.programming.dashboard.service;
+
+import com.programming.dashboard.config.WebClientConfig;
+import com.programming.dashboard.dto.CustomerDTO;
+import com.programming.dashboard.dto.CustomerPageDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@Service
+@ConditionalOnProperty(name = "dashboard.reactive.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveCustomerServiceImpl implements ReactiveCustomerService {
+
+    private final WebClient customerWebClient;
+
+    @Override
+    public Mono<CustomerPageDTO> findCustomers(Long after, Integer limit) {
+        log.info("Fetching customers after id={}, limit={}.", after, limit);
+        return customerWebClient.get()
+                .uri("/all?after={after}&limit={limit}", after, limit)
+                .retrieve()
+                .bodyToMono(CustomerPageDTO.class);
+    }
+
+    @Override
+    public Flux<CustomerDTO> streamCustomers() {
+        log.info("Streaming all customers.");
+        return customerWebClient.get()
+                .uri("/export")
+                .accept(WebClientConfig.NDJSON)
+                .retrieve()
+                .bodyToFlux(CustomerDTO.class);
+    }
+
+    @Override
+    public Mono<List<CustomerDTO>> findCustomerById(Long customerId) {
+        log.info("Fetching customer with id {}", customerId);
+        return customerWebClient.get()
+                .uri("/{id}", customerId)
+                .retrieve()
+                .bodyToFlux(CustomerDTO.class)
+                .collectList();
+    }
+
+    @Override
+    public Mono<List<CustomerDTO>> searchCustomers(String query, Integer limit) {
+        log.debug("Searching customers matching '{}', limit={}.", query, limit);
+        return customerWebClient.get()
+                .uri("/search?q={q}&limit={limit}", query, limit)
+                .retrieve()
+                .bodyToFlux(CustomerDTO.class)
+                .collectList();
+    }
+
+    @Override
+    public Mono<CustomerDTO> saveCustomer(CustomerDTO customerDTO) {
+        log.info("Creating new customer. id={}, first_name={}, middle_name={}, last_name={}",
+                customerDTO.getId(), customerDTO.getFirstName(), customerDTO.getMiddleName(), customerDTO.getLastName());
+        return customerWebClient.post()
+                .uri("/save")
+                .bodyValue(customerDTO)
+                .retrieve()
+                .bodyToMono(CustomerDTO.class);
+    }
+
+    @Override
+    public Mono<CustomerDTO> updateCustomer(CustomerDTO customerDTO) {
+        log.info("Updating customer. id={}, first_name={}, middle_name={}, last_name={}",
+                customerDTO.getId(), customerDTO.getFirstName(), customerDTO.getMiddleName(), customerDTO.getLastName());
+        return customerWebClient.put()
+                .uri("/update/{id}", customerDTO.getId())
+                .bodyValue(customerDTO)
+                .retrieve()
+                .bodyToMono(CustomerDTO.class);
+    }
+}
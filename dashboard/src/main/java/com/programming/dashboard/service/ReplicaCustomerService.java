@@ -0,0 +1,192 @@
+package com.programming.dashboard.service;
+
+import com.programming.dashboard.dto.CustomerChangesDTO;
+import com.programming.dashboard.dto.CustomerDTO;
+import com.programming.dashboard.dto.CustomerPageDTO;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Serves customer reads from a {@link CustomerReplica} of all customers. The replica is loaded from the customer
+ * service's change feed at startup and then kept current by polling the feed on the sync interval. Reads fall back to
+ * the customer service until the first load completes, whenever the replica has not caught up for longer than the
+ * maximum staleness, and for ids the replica does not know yet. Local writes go to the customer service and are applied
+ * to the replica from its response.
+ */
+@Service
+@Primary
+@Slf4j
+@ConditionalOnProperty(name = "customer.replica.enabled", havingValue = "true")
+public class ReplicaCustomerService implements CustomerService, MeterBinder {
+
+    private final CustomerService customerService;
+
+    private final CustomerReplica customerReplica = new CustomerReplica();
+
+    private final int pageSize;
+
+    private final long syncIntervalMillis;
+
+    private final long maxStalenessMillis;
+
+    private final ScheduledExecutorService syncExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "customer-replica-sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Only touched by the sync thread.
+    private String since = "";
+
+    // When the last sync that reached the end of the change feed started; 0 until the first load completes.
+    private volatile long syncedAtMillis;
+
+    private final LongAdder fallbackCount = new LongAdder();
+
+    public ReplicaCustomerService(@Qualifier("customerServiceImpl") CustomerService customerService,
+                                  @Value("${customer.replica.page-size}") int pageSize,
+                                  @Value("${customer.replica.sync-interval}") String syncInterval,
+                                  @Value("${customer.replica.max-staleness}") String maxStaleness) {
+        this.customerService = customerService;
+        this.pageSize = pageSize;
+        this.syncIntervalMillis = DurationStyle.detectAndParse(syncInterval).toMillis();
+        this.maxStalenessMillis = DurationStyle.detectAndParse(maxStaleness).toMillis();
+    }
+
+    @PostConstruct
+    public void init() {
+        syncExecutor.scheduleWithFixedDelay(this::syncQuietly, 0, syncIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        syncExecutor.shutdownNow();
+    }
+
+    /**
+     * Applies changes from the feed until it reports no more. Returns the number of customers applied.
+     */
+    public int sync() {
+        long startMillis = System.currentTimeMillis();
+        int applied = 0;
+        boolean hasMore = true;
+        while (hasMore) {
+            CustomerChangesDTO customerChangesDTO = Objects.requireNonNull(
+                    customerService.findCustomerChanges(since, pageSize).getBody());
+            customerChangesDTO.getCustomers().forEach(customerReplica::put);
+            applied += customerChangesDTO.getCustomers().size();
+            since = customerChangesDTO.getNext();
+            hasMore = customerChangesDTO.isHasMore();
+        }
+        if (syncedAtMillis == 0) {
+            log.info("Loaded {} customers into the replica in {} ms.", customerReplica.size(),
+                    System.currentTimeMillis() - startMillis);
+        }
+        syncedAtMillis = startMillis;
+        return applied;
+    }
+
+    /**
+     * Milliseconds since the replica was last known to be current, or -1 before the first load completes.
+     */
+    public long lagMillis() {
+        long syncedAt = syncedAtMillis;
+        return syncedAt == 0 ? -1 : System.currentTimeMillis() - syncedAt;
+    }
+
+    @Override
+    public ResponseEntity<CustomerPageDTO> findCustomers(Long after, Integer limit) {
+        if (!isFresh()) {
+            fallbackCount.increment();
+            return customerService.findCustomers(after, limit);
+        }
+        return ResponseEntity.ok().body(customerReplica.findCustomers(after, limit));
+    }
+
+    @Override
+    public ResponseEntity<List<CustomerDTO>> findCustomerById(Long customerId) {
+        CustomerDTO customerDTO = isFresh() ? customerReplica.get(customerId) : null;
+        if (customerDTO == null) {
+            // Either not loaded yet or created after the last sync; the customer service has the answer, 404 included.
+            fallbackCount.increment();
+            return customerService.findCustomerById(customerId);
+        }
+        return ResponseEntity.ok().body(Collections.singletonList(customerDTO));
+    }
+
+    @Override
+    public ResponseEntity<List<CustomerDTO>> searchCustomers(String query, Integer limit) {
+        return customerService.searchCustomers(query, limit);
+    }
+
+    @Override
+    public ResponseEntity<CustomerChangesDTO> findCustomerChanges(String since, Integer limit) {
+        return customerService.findCustomerChanges(since, limit);
+    }
+
+    @Override
+    public ResponseEntity<CustomerDTO> saveCustomer(CustomerDTO customerDTO) {
+        return applied(customerService.saveCustomer(customerDTO));
+    }
+
+    @Override
+    public ResponseEntity<CustomerDTO> updateCustomer(CustomerDTO customerDTO) {
+        return applied(customerService.updateCustomer(customerDTO));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("customer.replica.lag", this, ReplicaCustomerService::lagMillis)
+                .description("Time since the replica was last caught up with the customer service, -1 before the first load")
+                .baseUnit("milliseconds")
+                .register(registry);
+        Gauge.builder("customer.replica.size", customerReplica, CustomerReplica::size)
+                .description("Customers held in the replica")
+                .register(registry);
+        FunctionCounter.builder("customer.replica.fallbacks", fallbackCount, LongAdder::sum)
+                .description("Reads sent to the customer service because the replica could not answer them")
+                .register(registry);
+    }
+
+    private boolean isFresh() {
+        long lag = lagMillis();
+        return lag >= 0 && lag <= maxStalenessMillis;
+    }
+
+    private ResponseEntity<CustomerDTO> applied(ResponseEntity<CustomerDTO> responseEntity) {
+        if (responseEntity.getBody() != null && responseEntity.getBody().getId() != null) {
+            customerReplica.put(responseEntity.getBody());
+        }
+        return responseEntity;
+    }
+
+    private void syncQuietly() {
+        try {
+            int applied = sync();
+            log.debug("Applied {} customer changes to the replica.", applied);
+        } catch (RuntimeException e) {
+            // Keep the schedule alive; reads fall back to the customer service once the lag passes the maximum.
+            log.warn("Customer replica sync failed, lag={} ms: {}", lagMillis(), e.toString());
+        }
+    }
+}
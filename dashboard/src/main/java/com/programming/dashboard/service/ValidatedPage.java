@@ -0,0 +1,13 @@
+package com.programming.dashboard.service;
+
+import com.programming.dashboard.dto.CustomerPageDTO;
+import lombok.Data;
+
+/**
+ * A page as last downloaded, with the ETag it was served under, so it can be revalidated instead of downloaded again.
+ */
+@Data
+class ValidatedPage {
+    private final String eTag;
+    private final CustomerPageDTO customerPageDTO;
+}
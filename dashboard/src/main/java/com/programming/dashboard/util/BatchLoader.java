@@ -0,0 +1,103 @@
+package com.programming.dashboard.util;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Collects single-key loads made within a short window and serves them with one call to a batch function. A load made
+ * while no batch is being sent has no one to share a batch with, so it is sent alone right away. Otherwise the caller
+ * that opens a batch waits out the window and then runs the batch on its own thread; a batch that fills up is sent
+ * right away by the caller that filled it. Keys missing from the batch result load as {@code null}.
+ */
+public class BatchLoader<K, V> {
+
+    private final Function<List<K>, Map<K, V>> batchFunction;
+
+    private final long windowNanos;
+
+    private final int maxBatchSize;
+
+    // Guarded by this.
+    private Map<K, CompletableFuture<V>> openBatch;
+
+    // Guarded by this. Batches sent and not answered yet.
+    private int sending;
+
+    public BatchLoader(Function<List<K>, Map<K, V>> batchFunction, Duration window, int maxBatchSize) {
+        this.batchFunction = batchFunction;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public V load(K key) {
+        Map<K, CompletableFuture<V>> batch;
+        CompletableFuture<V> future;
+        boolean opened;
+        boolean send;
+        synchronized (this) {
+            opened = openBatch == null;
+            if (opened) {
+                openBatch = new LinkedHashMap<>();
+            }
+            batch = openBatch;
+            future = batch.computeIfAbsent(key, k -> new CompletableFuture<>());
+            send = batch.size() >= maxBatchSize || opened && sending == 0;
+            if (send) {
+                openBatch = null;
+                sending++;
+            }
+        }
+
+        if (send) {
+            dispatch(batch);
+        } else if (opened) {
+            awaitWindow(future);
+            if (close(batch)) {
+                dispatch(batch);
+            }
+        }
+        return Futures.join(future);
+    }
+
+    private void awaitWindow(CompletableFuture<V> future) {
+        // Returns early when the batch fills up and is sent by another caller before the window ends.
+        try {
+            future.get(windowNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            // Failures are rethrown when the result is joined; a timeout just means the window is over.
+        }
+    }
+
+    private synchronized boolean close(Map<K, CompletableFuture<V>> batch) {
+        // A batch that filled up during the window was already closed and sent by the caller that filled it.
+        if (openBatch != batch) {
+            return false;
+        }
+        openBatch = null;
+        sending++;
+        return true;
+    }
+
+    private void dispatch(Map<K, CompletableFuture<V>> batch) {
+        try {
+            Map<K, V> result = batchFunction.apply(new ArrayList<>(batch.keySet()));
+            batch.forEach((key, future) -> future.complete(result.get(key)));
+        } catch (RuntimeException | Error e) {
+            batch.values().forEach(future -> future.completeExceptionally(e));
+        } finally {
+            synchronized (this) {
+                sending--;
+            }
+        }
+    }
+}
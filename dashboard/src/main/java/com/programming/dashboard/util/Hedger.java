@@ -0,0 +1,292 @@
+package com.programming.dashboard.util;
+
+import org.slf4j.MDC;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Hedges slow calls: if a call has not returned after the hedge delay, an identical second attempt is started and
+ * whichever succeeds first wins. The delay tracks a percentile of recent call latencies, never dropping below the
+ * configured minimum, and a token bucket caps hedges to a fraction of all calls. The first attempt runs on the
+ * caller's thread; hedges run on a bounded pool and are skipped while it is full. The losing attempt is cancelled
+ * through the action it registered with {@link #onCancel(Runnable)}.
+ */
+public class Hedger {
+
+    private static final ThreadLocal<Attempt> CURRENT_ATTEMPT = new ThreadLocal<>();
+
+    private static final int SAMPLE_SIZE = 1024;
+
+    private static final int RECOMPUTE_EVERY = 64;
+
+    // Unused budget accumulates up to this many hedges, so a short burst of slow calls can still be hedged.
+    private static final double MAX_BUDGET_TOKENS = 10;
+
+    private final double percentile;
+
+    private final long minDelayNanos;
+
+    private final double budget;
+
+    private final AtomicLongArray latencySamples = new AtomicLongArray(SAMPLE_SIZE);
+
+    private final AtomicLong sampleCount = new AtomicLong();
+
+    private volatile long hedgeDelayNanos;
+
+    // Guarded by this.
+    private double budgetTokens;
+
+    private final LongAdder hedges = new LongAdder();
+
+    private final LongAdder hedgeWins = new LongAdder();
+
+    private final ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, daemonThreads("hedge-timer"));
+
+    private final ThreadPoolExecutor hedgeExecutor;
+
+    public Hedger(double percentile, Duration minDelay, double budget, int maxConcurrentHedges) {
+        this.percentile = percentile;
+        this.minDelayNanos = minDelay.toNanos();
+        this.budget = budget;
+        this.hedgeDelayNanos = minDelayNanos;
+        // Most calls finish before their hedge is due; drop those timers instead of keeping them queued.
+        timer.setRemoveOnCancelPolicy(true);
+        // No queue: a hedge that cannot start at once would only be later than the attempt it is meant to overtake.
+        hedgeExecutor = new ThreadPoolExecutor(0, maxConcurrentHedges, 60, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                daemonThreads("hedged-call"));
+    }
+
+    /**
+     * Registers how to abort the attempt running on the current thread should it lose. No-op outside a hedged call.
+     */
+    public static void onCancel(Runnable cancelAction) {
+        Attempt attempt = CURRENT_ATTEMPT.get();
+        if (attempt != null) {
+            attempt.onCancel(cancelAction);
+        }
+    }
+
+    public <T> T execute(Supplier<T> call) {
+        depositBudget();
+        HedgedCall<T> hedgedCall = new HedgedCall<>(call);
+        ScheduledFuture<?> hedgeTimer = timer.schedule(hedgedCall::startHedge, hedgeDelayNanos, TimeUnit.NANOSECONDS);
+        try {
+            // If the hedge wins, the primary is aborted through its cancel action and returns early; if the primary
+            // fails, the hedge may still answer.
+            hedgedCall.run(hedgedCall.primary);
+            return Futures.join(hedgedCall.result);
+        } finally {
+            hedgeTimer.cancel(false);
+        }
+    }
+
+    public long hedgeCount() {
+        return hedges.sum();
+    }
+
+    public long hedgeWinCount() {
+        return hedgeWins.sum();
+    }
+
+    public double hedgeDelayMillis() {
+        return hedgeDelayNanos / 1_000_000.0;
+    }
+
+    public void shutdown() {
+        timer.shutdownNow();
+        hedgeExecutor.shutdownNow();
+    }
+
+    private synchronized void depositBudget() {
+        budgetTokens = Math.min(MAX_BUDGET_TOKENS, budgetTokens + budget);
+    }
+
+    private synchronized boolean withdrawBudget() {
+        if (budgetTokens < 1) {
+            return false;
+        }
+        budgetTokens -= 1;
+        return true;
+    }
+
+    private void recordLatency(long nanos) {
+        long count = sampleCount.incrementAndGet();
+        latencySamples.set((int) ((count - 1) % SAMPLE_SIZE), nanos);
+        if (count % RECOMPUTE_EVERY == 0) {
+            int size = (int) Math.min(count, SAMPLE_SIZE);
+            long[] sorted = new long[size];
+            for (int i = 0; i < size; i++) {
+                sorted[i] = latencySamples.get(i);
+            }
+            Arrays.sort(sorted);
+            long percentileNanos = sorted[Math.max(0, (int) Math.ceil(percentile * size) - 1)];
+            hedgeDelayNanos = Math.max(minDelayNanos, percentileNanos);
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicLong counter = new AtomicLong();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private class HedgedCall<T> {
+
+        private final Supplier<T> call;
+
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        private final Attempt primary = new Attempt();
+
+        private final Attempt hedge = new Attempt();
+
+        // The hedge runs on a pool thread but logs as part of the caller's request.
+        private final Map<String, String> callerContext = MDC.getCopyOfContextMap();
+
+        // Guarded by this.
+        private int runningAttempts = 1;
+
+        private boolean decided;
+
+        private Throwable firstFailure;
+
+        HedgedCall(Supplier<T> call) {
+            this.call = call;
+        }
+
+        void startHedge() {
+            synchronized (this) {
+                if (decided || !withdrawBudget()) {
+                    return;
+                }
+                runningAttempts++;
+            }
+            try {
+                hedgeExecutor.execute(this::runHedge);
+            } catch (RejectedExecutionException e) {
+                hedgeNotStarted();
+                return;
+            }
+            hedges.increment();
+        }
+
+        private void runHedge() {
+            if (callerContext != null) {
+                MDC.setContextMap(callerContext);
+            }
+            try {
+                run(hedge);
+            } finally {
+                MDC.clear();
+            }
+        }
+
+        private void hedgeNotStarted() {
+            synchronized (this) {
+                runningAttempts--;
+                if (decided || runningAttempts > 0) {
+                    return;
+                }
+                decided = true;
+            }
+            // The primary failed while the hedge was being handed to the pool.
+            result.completeExceptionally(firstFailure);
+        }
+
+        void run(Attempt attempt) {
+            long start = System.nanoTime();
+            T value;
+            try {
+                value = attempt.run(call);
+            } catch (RuntimeException | Error e) {
+                failed(e);
+                return;
+            }
+            recordLatency(System.nanoTime() - start);
+            succeeded(attempt, value);
+        }
+
+        private void succeeded(Attempt attempt, T value) {
+            synchronized (this) {
+                if (decided) {
+                    return;
+                }
+                decided = true;
+            }
+            if (attempt == hedge) {
+                hedgeWins.increment();
+            }
+            result.complete(value);
+            (attempt == primary ? hedge : primary).cancel();
+        }
+
+        private void failed(Throwable failure) {
+            // The call only fails once every attempt has failed; the first failure is the one reported.
+            synchronized (this) {
+                runningAttempts--;
+                if (firstFailure == null) {
+                    firstFailure = failure;
+                }
+                if (decided || runningAttempts > 0) {
+                    return;
+                }
+                decided = true;
+            }
+            result.completeExceptionally(firstFailure);
+        }
+    }
+
+    private static class Attempt {
+
+        // Guarded by this.
+        private boolean cancelled;
+
+        private Runnable cancelAction;
+
+        <T> T run(Supplier<T> call) {
+            CURRENT_ATTEMPT.set(this);
+            try {
+                return call.get();
+            } finally {
+                CURRENT_ATTEMPT.remove();
+            }
+        }
+
+        synchronized void onCancel(Runnable action) {
+            if (cancelled) {
+                action.run();
+            } else {
+                cancelAction = action;
+            }
+        }
+
+        void cancel() {
+            Runnable action;
+            synchronized (this) {
+                cancelled = true;
+                action = cancelAction;
+            }
+            if (action != null) {
+                action.run();
+            }
+        }
+    }
+}
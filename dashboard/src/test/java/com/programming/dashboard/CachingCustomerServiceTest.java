@@ -0,0 +1,112 @@
+package com.programming.dashboard;
+
+import com.programming.dashboard.dto.CustomerDTO;
+import com.programming.dashboard.dto.CustomerPageDTO;
+import com.programming.dashboard.service.CachingCustomerService;
+import com.programming.dashboard.service.CustomerService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CachingCustomerServiceTest {
+
+    @Mock
+    private CustomerService customerService;
+
+    private CachingCustomerService cachingCustomerService;
+
+    @BeforeEach
+    void setUp() {
+        cachingCustomerService = new CachingCustomerService(customerService, 100, "200ms", "1m");
+    }
+
+    @Test
+    void FindCustomerById_RepeatedLookup_ServedFromCache() {
+        when(customerService.findCustomerById(1L)).thenReturn(ok(new CustomerDTO(1L, "John", "Smith", "Doe")));
+
+        cachingCustomerService.findCustomerById(1L);
+        ResponseEntity<List<CustomerDTO>> responseEntity = cachingCustomerService.findCustomerById(1L);
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(Objects.requireNonNull(responseEntity.getBody()).get(0).getFirstName()).isEqualTo("John");
+        verify(customerService, times(1)).findCustomerById(1L);
+    }
+
+    @Test
+    void BindTo_ExposesNearCacheHitsAndMisses() {
+        when(customerService.findCustomerById(1L)).thenReturn(ok(new CustomerDTO(1L, "John", "Smith", "Doe")));
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        cachingCustomerService.bindTo(meterRegistry);
+
+        cachingCustomerService.findCustomerById(1L);
+        cachingCustomerService.findCustomerById(1L);
+
+        assertThat(meterRegistry.get("cache.gets").tags("cache", "customer-near-cache-by-id", "result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tags("cache", "customer-near-cache-by-id", "result", "miss")
+                .functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void FindCustomerById_PastRefreshInterval_ServesStaleAndReloads() throws Exception {
+        when(customerService.findCustomerById(1L))
+                .thenReturn(ok(new CustomerDTO(1L, "John", "Smith", "Doe")), ok(new CustomerDTO(1L, "Johnny", "Smith", "Doe")));
+
+        cachingCustomerService.findCustomerById(1L);
+        Thread.sleep(300);
+
+        ResponseEntity<List<CustomerDTO>> staleEntity = cachingCustomerService.findCustomerById(1L);
+        assertThat(Objects.requireNonNull(staleEntity.getBody()).get(0).getFirstName()).isEqualTo("John");
+        verify(customerService, timeout(1000).times(2)).findCustomerById(1L);
+    }
+
+    @Test
+    void FindCustomerById_NonExisting_ThrowException() {
+        when(customerService.findCustomerById(100L))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "404 NOT_FOUND", null, null, null));
+
+        Exception exception = assertThrows(HttpClientErrorException.class,
+                () -> cachingCustomerService.findCustomerById(100L));
+        assertThat(exception.getMessage()).contains("404");
+    }
+
+    @Test
+    void UpdateCustomer_CachedCustomer_Invalidated() {
+        CustomerDTO customerDTO = new CustomerDTO(1L, "Johnny", "Smith", "Doe");
+        when(customerService.findCustomerById(1L)).thenReturn(ok(new CustomerDTO(1L, "John", "Smith", "Doe")));
+        when(customerService.findCustomers(0L, 100)).thenReturn(ResponseEntity.ok().body(new CustomerPageDTO(Collections.emptyList(), null)));
+        when(customerService.updateCustomer(customerDTO)).thenReturn(ResponseEntity.ok().body(customerDTO));
+
+        cachingCustomerService.findCustomerById(1L);
+        cachingCustomerService.findCustomers(0L, 100);
+        cachingCustomerService.updateCustomer(customerDTO);
+        cachingCustomerService.findCustomerById(1L);
+        cachingCustomerService.findCustomers(0L, 100);
+
+        verify(customerService, times(2)).findCustomerById(1L);
+        verify(customerService, times(2)).findCustomers(0L, 100);
+    }
+
+    private ResponseEntity<List<CustomerDTO>> ok(CustomerDTO customerDTO) {
+        return ResponseEntity.ok().body(Collections.singletonList(customerDTO));
+    }
+}
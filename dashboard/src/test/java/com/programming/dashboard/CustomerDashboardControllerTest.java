@@ -3,6 +3,7 @@ package com.programming.dashboard;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.programming.dashboard.controller.CustomerDashboardController;
 import com.programming.dashboard.dto.CustomerDTO;
+import com.programming.dashboard.dto.CustomerPageDTO;
 import com.programming.dashboard.service.CustomerService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -53,12 +54,13 @@ class CustomerDashboardControllerTest {
 
     @Test
     void GetAllCustomers_Success() throws Exception {
-        when(customerService.findCustomers()).thenReturn(ResponseEntity.ok().body(Collections.emptyList()));
+        when(customerService.findCustomers(0L, 100))
+                .thenReturn(ResponseEntity.ok().body(new CustomerPageDTO(Collections.emptyList(), null)));
 
         mockMvc.perform(get("/dashboard/customer/all"))
                 .andExpect(status().isOk());
 
-        ResponseEntity<List<CustomerDTO>> responseEntity = customerDashboardController.getAllCustomers();
+        ResponseEntity<CustomerPageDTO> responseEntity = customerDashboardController.getAllCustomers(0L, 100);
         assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
     }
 
@@ -73,6 +75,14 @@ class CustomerDashboardControllerTest {
         assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
     }
 
+    @Test
+    void SearchCustomers_DefaultLimit_Success() throws Exception {
+        when(customerService.searchCustomers("jo", 10)).thenReturn(ResponseEntity.ok().body(Collections.emptyList()));
+
+        mockMvc.perform(get("/dashboard/customer/search").param("q", "jo"))
+                .andExpect(status().isOk());
+    }
+
     @Test
     void GetCustomerById_NonExisting_NotFound() throws Exception {
         when(customerService.findCustomerById(100L)).thenThrow(HttpClientErrorException.class);
@@ -1,13 +1,18 @@
 package com.programming.dashboard;
 
 import com.programming.dashboard.dto.CustomerDTO;
+import com.programming.dashboard.dto.CustomerPageDTO;
 import com.programming.dashboard.service.CustomerServiceImpl;
+import com.programming.dashboard.util.Hedger;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.MDC;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
@@ -15,9 +20,26 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,15 +56,42 @@ public class CustomerServiceTest {
     void setUp() {
         customerService = new CustomerServiceImpl(restTemplate);
         customerService.setCustomerAppUri(url);
+        customerService.setBatchWindow("5ms");
+        customerService.setBatchMaxSize(100);
+        customerService.setValidatorCacheMaximumSize(100);
+        customerService.init();
     }
 
     @Test
     void FindCustomers_Success() {
-        CustomerDTO[] customerArr = new CustomerDTO[] {new CustomerDTO(1L, "John", "Smith", "Doe")};
-        when(restTemplate.getForEntity(url.concat("/all"), CustomerDTO[].class)).thenReturn(ResponseEntity.ok().body(customerArr));
+        CustomerPageDTO customerPage = new CustomerPageDTO(Collections.singletonList(new CustomerDTO(1L, "John", "Smith", "Doe")), 1L);
+        when(exchangePage(0L, 1))
+                .thenReturn(ResponseEntity.ok().body(customerPage));
 
-        ResponseEntity responseEntity = customerService.findCustomers();
+        ResponseEntity<CustomerPageDTO> responseEntity = customerService.findCustomers(0L, 1);
         assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(Objects.requireNonNull(responseEntity.getBody()).getNext()).isEqualTo(1L);
+    }
+
+    @Test
+    void FindCustomers_UnchangedPage_RevalidatedWithIfNoneMatch() {
+        CustomerPageDTO customerPage = new CustomerPageDTO(Collections.singletonList(new CustomerDTO(1L, "John", "Smith", "Doe", 0L)), 1L);
+        List<List<String>> ifNoneMatch = new ArrayList<>();
+        when(exchangePage(0L, 1)).thenAnswer(invocation -> {
+            HttpEntity<?> request = invocation.getArgument(2);
+            ifNoneMatch.add(request.getHeaders().getIfNoneMatch());
+            if (request.getHeaders().getIfNoneMatch().contains("\"p0.1.1.1.0.n\"")) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag("p0.1.1.1.0.n").build();
+            }
+            return ResponseEntity.ok().eTag("p0.1.1.1.0.n").body(customerPage);
+        });
+
+        customerService.findCustomers(0L, 1);
+        ResponseEntity<CustomerPageDTO> responseEntity = customerService.findCustomers(0L, 1);
+
+        assertThat(ifNoneMatch).containsExactly(Collections.emptyList(), Collections.singletonList("\"p0.1.1.1.0.n\""));
+        assertThat(responseEntity.getBody()).isEqualTo(customerPage).isNotSameAs(customerPage);
+        assertThat(customerService.getNotModifiedCount().sum()).isEqualTo(1);
     }
 
     @Test
@@ -64,6 +113,17 @@ public class CustomerServiceTest {
         assertTrue(exception.getMessage().contains("404"));
     }
 
+    @Test
+    void SearchCustomers_Success() {
+        CustomerDTO[] customerArr = new CustomerDTO[] {new CustomerDTO(1L, "John", "Smith", "Doe")};
+        when(restTemplate.getForEntity(url.concat("/search?q={q}&limit={limit}"), CustomerDTO[].class, "jo", 5))
+                .thenReturn(ResponseEntity.ok().body(customerArr));
+
+        ResponseEntity<List<CustomerDTO>> responseEntity = customerService.searchCustomers("jo", 5);
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(responseEntity.getBody()).extracting(CustomerDTO::getFirstName).containsExactly("John");
+    }
+
     @Test
     void SaveCustomer_ValidRequest_Success() {
         CustomerDTO customerDTO = new CustomerDTO(null, "John", "Smith", "Doe");
@@ -229,4 +289,228 @@ public class CustomerServiceTest {
         assertTrue(exception.getMessage().contains("404"));
     }
 
+    @Test
+    void FindCustomerById_ConcurrentCalls_ShareOneDownstreamCall() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(restTemplate.getForEntity(url.concat("/{id}"), CustomerDTO[].class, "1")).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return ResponseEntity.ok().body(new CustomerDTO[] {new CustomerDTO(1L, "John", "Smith", "Doe")});
+        });
+
+        CompletableFuture<ResponseEntity<List<CustomerDTO>>> leader = CompletableFuture.supplyAsync(() -> customerService.findCustomerById(1L));
+        CompletableFuture<ResponseEntity<List<CustomerDTO>>> follower = startFollower(() -> customerService.findCustomerById(1L));
+        awaitCoalesced(1);
+        release.countDown();
+
+        List<CustomerDTO> leaderBody = leader.get(5, TimeUnit.SECONDS).getBody();
+        List<CustomerDTO> followerBody = follower.get(5, TimeUnit.SECONDS).getBody();
+        assertThat(followerBody).isEqualTo(leaderBody);
+        assertThat(followerBody.get(0)).isNotSameAs(leaderBody.get(0));
+        assertThat(customerService.getFindCustomerByIdFlight().coalescedCount()).isEqualTo(1);
+        verify(restTemplate, times(1)).getForEntity(url.concat("/{id}"), CustomerDTO[].class, "1");
+    }
+
+    @Test
+    void FindCustomerById_ConcurrentCallsFail_ThrowExceptionToAll() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(restTemplate.getForEntity(url.concat("/{id}"), CustomerDTO[].class, "100")).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            throw HttpClientErrorException.create(HttpStatus.NOT_FOUND, "404 NOT_FOUND", null, null, null);
+        });
+
+        CompletableFuture<ResponseEntity<List<CustomerDTO>>> leader = CompletableFuture.supplyAsync(() -> customerService.findCustomerById(100L));
+        CompletableFuture<ResponseEntity<List<CustomerDTO>>> follower = startFollower(() -> customerService.findCustomerById(100L));
+        awaitCoalesced(1);
+        release.countDown();
+
+        ExecutionException leaderException = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+        ExecutionException followerException = assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS));
+        assertThat(leaderException.getCause()).isInstanceOf(HttpClientErrorException.class);
+        assertThat(followerException.getCause()).isInstanceOf(HttpClientErrorException.class);
+        verify(restTemplate, times(1)).getForEntity(url.concat("/{id}"), CustomerDTO[].class, "100");
+    }
+
+    @Test
+    void FindCustomerById_LoneLookup_SentWithoutWaitingForWindow() {
+        customerService.setBatchWindow("10s");
+        customerService.init();
+        when(restTemplate.getForEntity(url.concat("/{id}"), CustomerDTO[].class, "1"))
+                .thenReturn(ResponseEntity.ok().body(new CustomerDTO[] {new CustomerDTO(1L, "John", "Smith", "Doe")}));
+
+        long startNanos = System.nanoTime();
+        assertThat(customerService.findCustomerById(1L).getBody().get(0).getFirstName()).isEqualTo("John");
+        assertThat(System.nanoTime() - startNanos).isLessThan(TimeUnit.SECONDS.toNanos(5));
+    }
+
+    @Test
+    void FindCustomerById_LoneLookup_NotSentAsMultiGet() {
+        when(restTemplate.getForEntity(url.concat("/{id}"), CustomerDTO[].class, "1"))
+                .thenReturn(ResponseEntity.ok().body(new CustomerDTO[] {new CustomerDTO(1L, "John", "Smith", "Doe")}));
+
+        customerService.findCustomerById(1L);
+        verify(restTemplate, never()).getForEntity(eq(url.concat("?ids={ids}")), eq(CustomerDTO[].class), any(String.class));
+    }
+
+    @Test
+    void FindCustomerById_ConcurrentDifferentIds_SendOneMultiGet() throws Exception {
+        customerService.setBatchWindow("1s");
+        customerService.setBatchMaxSize(2);
+        customerService.init();
+        CountDownLatch firstSent = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(restTemplate.getForEntity(eq(url.concat("?ids={ids}")), eq(CustomerDTO[].class), any(String.class)))
+                .thenReturn(ResponseEntity.ok().body(new CustomerDTO[] {
+                        new CustomerDTO(2L, "Jane", "Smith", "Doe"), new CustomerDTO(3L, "Jim", "Smith", "Doe")}));
+        when(restTemplate.getForEntity(url.concat("/{id}"), CustomerDTO[].class, "1")).thenAnswer(invocation -> {
+            firstSent.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return ResponseEntity.ok().body(new CustomerDTO[] {new CustomerDTO(1L, "John", "Smith", "Doe")});
+        });
+
+        // Nothing else is loading, so the first id goes out alone to /{id}; the ids looked up while it is in flight are
+        // batched into one multi-get.
+        CompletableFuture<ResponseEntity<List<CustomerDTO>>> first = CompletableFuture.supplyAsync(() -> customerService.findCustomerById(1L));
+        assertTrue(firstSent.await(5, TimeUnit.SECONDS));
+        CompletableFuture<ResponseEntity<List<CustomerDTO>>> second = CompletableFuture.supplyAsync(() -> customerService.findCustomerById(2L));
+        CompletableFuture<ResponseEntity<List<CustomerDTO>>> third = CompletableFuture.supplyAsync(() -> customerService.findCustomerById(3L));
+
+        // The third id fills the batch, so neither call waits out the one second window.
+        assertThat(second.get(900, TimeUnit.MILLISECONDS).getBody().get(0).getFirstName()).isEqualTo("Jane");
+        assertThat(third.get(900, TimeUnit.MILLISECONDS).getBody().get(0).getFirstName()).isEqualTo("Jim");
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS).getBody().get(0).getFirstName()).isEqualTo("John");
+        verify(restTemplate, times(1)).getForEntity(url.concat("/{id}"), CustomerDTO[].class, "1");
+        verify(restTemplate, times(1)).getForEntity(eq(url.concat("?ids={ids}")), eq(CustomerDTO[].class), any(String.class));
+    }
+
+    @Test
+    void FindCustomers_SlowResponse_HedgeWins() {
+        enableHedging(1.0);
+        CountDownLatch slowResponse = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        when(exchangePage(0L, 1)).thenAnswer(invocation -> {
+            if (calls.incrementAndGet() == 1) {
+                // Losing attempts are aborted through their cancel action, as the HTTP client interceptor does.
+                Hedger.onCancel(slowResponse::countDown);
+                slowResponse.await(5, TimeUnit.SECONDS);
+                return ResponseEntity.ok().body(new CustomerPageDTO(Collections.emptyList(), 1L));
+            }
+            return ResponseEntity.ok().body(new CustomerPageDTO(Collections.emptyList(), 2L));
+        });
+
+        try {
+            ResponseEntity<CustomerPageDTO> responseEntity = customerService.findCustomers(0L, 1);
+            assertThat(responseEntity.getBody().getNext()).isEqualTo(2L);
+            assertThat(customerService.getHedgers().get("findCustomers").hedgeCount()).isEqualTo(1);
+            assertThat(customerService.getHedgers().get("findCustomers").hedgeWinCount()).isEqualTo(1);
+        } finally {
+            slowResponse.countDown();
+            customerService.shutdown();
+        }
+    }
+
+    @Test
+    void FindCustomers_SlowResponse_HedgeCountedForPagesOnly() {
+        enableHedging(1.0);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        customerService.bindTo(registry);
+        CountDownLatch slowResponse = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        when(exchangePage(0L, 1)).thenAnswer(invocation -> {
+            if (calls.incrementAndGet() == 1) {
+                Hedger.onCancel(slowResponse::countDown);
+                slowResponse.await(5, TimeUnit.SECONDS);
+            }
+            return ResponseEntity.ok().body(new CustomerPageDTO(Collections.emptyList(), 1L));
+        });
+
+        try {
+            customerService.findCustomers(0L, 1);
+            assertThat(registry.get("customer.client.hedges").tag("operation", "findCustomers").functionCounter().count())
+                    .isEqualTo(1);
+            assertThat(registry.get("customer.client.hedges").tag("operation", "findCustomerById").functionCounter().count())
+                    .isZero();
+            assertThat(customerService.getHedgers().get("findCustomerById"))
+                    .isNotSameAs(customerService.getHedgers().get("findCustomers"));
+        } finally {
+            slowResponse.countDown();
+            customerService.shutdown();
+        }
+    }
+
+    @Test
+    void FindCustomers_SlowResponse_HedgeKeepsCallerMdc() {
+        enableHedging(1.0);
+        CountDownLatch slowResponse = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        AtomicReference<String> hedgeRequestId = new AtomicReference<>();
+        when(exchangePage(0L, 1)).thenAnswer(invocation -> {
+            if (calls.incrementAndGet() == 1) {
+                Hedger.onCancel(slowResponse::countDown);
+                slowResponse.await(5, TimeUnit.SECONDS);
+                return ResponseEntity.ok().body(new CustomerPageDTO(Collections.emptyList(), 1L));
+            }
+            hedgeRequestId.set(MDC.get("requestId"));
+            return ResponseEntity.ok().body(new CustomerPageDTO(Collections.emptyList(), 2L));
+        });
+
+        MDC.put("requestId", "r-1");
+        try {
+            customerService.findCustomers(0L, 1);
+            assertThat(hedgeRequestId.get()).isEqualTo("r-1");
+        } finally {
+            MDC.remove("requestId");
+            slowResponse.countDown();
+            customerService.shutdown();
+        }
+    }
+
+    @Test
+    void FindCustomers_HedgeBudgetSpent_WaitsForOriginal() {
+        enableHedging(0);
+        when(exchangePage(0L, 1)).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return ResponseEntity.ok().body(new CustomerPageDTO(Collections.emptyList(), 1L));
+        });
+
+        try {
+            ResponseEntity<CustomerPageDTO> responseEntity = customerService.findCustomers(0L, 1);
+            assertThat(responseEntity.getBody().getNext()).isEqualTo(1L);
+            assertThat(customerService.getHedgers().get("findCustomers").hedgeCount()).isZero();
+            verify(restTemplate, times(1)).exchange(eq(url.concat("/all?after={after}&limit={limit}")), eq(HttpMethod.GET),
+                    any(HttpEntity.class), eq(CustomerPageDTO.class), eq(0L), eq(1));
+        } finally {
+            customerService.shutdown();
+        }
+    }
+
+    private ResponseEntity<CustomerPageDTO> exchangePage(Long after, Integer limit) {
+        return restTemplate.exchange(eq(url.concat("/all?after={after}&limit={limit}")), eq(HttpMethod.GET),
+                any(HttpEntity.class), eq(CustomerPageDTO.class), eq(after), eq(limit));
+    }
+
+    private void enableHedging(double budget) {
+        customerService.setHedgeEnabled(true);
+        customerService.setHedgePercentile(0.95);
+        customerService.setHedgeMinDelay("50ms");
+        customerService.setHedgeBudget(budget);
+        customerService.setHedgeMaxConcurrent(4);
+        customerService.init();
+    }
+
+    private <T> CompletableFuture<T> startFollower(Supplier<T> call) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        // Wait until the leader is inside the downstream call before starting the follower.
+        while (Mockito.mockingDetails(restTemplate).getInvocations().isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        return CompletableFuture.supplyAsync(call);
+    }
+
+    private void awaitCoalesced(long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (customerService.getFindCustomerByIdFlight().coalescedCount() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
 }
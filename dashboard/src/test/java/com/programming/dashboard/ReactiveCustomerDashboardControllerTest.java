@@ -0,0 +1,107 @@
+package com.programming.dashboard;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.programming.dashboard.controller.CustomerControllerAdvice;
+import com.programming.dashboard.controller.ReactiveCustomerDashboardController;
+import com.programming.dashboard.dto.CustomerDTO;
+import com.programming.dashboard.dto.CustomerPageDTO;
+import com.programming.dashboard.service.ReactiveCustomerService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.client.HttpClientErrorException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveCustomerDashboardControllerTest {
+
+    @Mock
+    private ReactiveCustomerService reactiveCustomerService;
+
+    private MockMvc mockMvc;
+
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper();
+        mockMvc = MockMvcBuilders.standaloneSetup(new ReactiveCustomerDashboardController(reactiveCustomerService))
+                .setControllerAdvice(new CustomerControllerAdvice())
+                .build();
+    }
+
+    @Test
+    void GetAllCustomers_Success() throws Exception {
+        when(reactiveCustomerService.findCustomers(0L, 100))
+                .thenReturn(Mono.just(new CustomerPageDTO(Collections.singletonList(new CustomerDTO(1L, "John", "Smith", "Doe")), null)));
+
+        MvcResult mvcResult = mockMvc.perform(get("/dashboard/customer/all"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.customers[0].firstName").value("John"));
+    }
+
+    @Test
+    void StreamAllCustomers_StreamJson_OneLinePerCustomer() throws Exception {
+        when(reactiveCustomerService.streamCustomers()).thenReturn(Flux.just(
+                new CustomerDTO(1L, "John", "Smith", "Doe"), new CustomerDTO(2L, "Jane", "Smith", "Doe")));
+
+        MvcResult mvcResult = mockMvc.perform(get("/dashboard/customer/all").accept(MediaType.APPLICATION_STREAM_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().string(
+                        "{\"id\":1,\"firstName\":\"John\",\"middleName\":\"Smith\",\"lastName\":\"Doe\",\"version\":null}\n"
+                                + "{\"id\":2,\"firstName\":\"Jane\",\"middleName\":\"Smith\",\"lastName\":\"Doe\",\"version\":null}\n"));
+    }
+
+    @Test
+    void GetCustomerById_NonExisting_NotFound() throws Exception {
+        when(reactiveCustomerService.findCustomerById(100L)).thenReturn(Mono.error(new HttpClientErrorException(HttpStatus.NOT_FOUND)));
+
+        MvcResult mvcResult = mockMvc.perform(get("/dashboard/customer/{id}", 100L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("404 NOT_FOUND"));
+    }
+
+    @Test
+    void UpdateCustomer_StaleVersion_Conflict() throws Exception {
+        CustomerDTO customerDTO = new CustomerDTO(null, "John", "Smith", "Doe", 0L);
+        when(reactiveCustomerService.updateCustomer(any(CustomerDTO.class)))
+                .thenReturn(Mono.error(new HttpClientErrorException(HttpStatus.CONFLICT)));
+
+        MvcResult mvcResult = mockMvc.perform(put("/dashboard/customer/update/{id}", 1L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(customerDTO)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isConflict());
+    }
+}
@@ -0,0 +1,90 @@
+package com.programming.dashboard;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.programming.dashboard.config.WebClientConfig;
+import com.programming.dashboard.dto.CustomerDTO;
+import com.programming.dashboard.dto.CustomerPageDTO;
+import com.programming.dashboard.handler.WebClientResponseErrorFilter;
+import com.programming.dashboard.service.ReactiveCustomerServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ReactiveCustomerServiceTest {
+
+    private static String url = "http://localhost:8081/api/customer";
+
+    private final AtomicReference<ClientRequest> lastRequest = new AtomicReference<>();
+
+    private ReactiveCustomerServiceImpl serviceReturning(HttpStatus status, MediaType contentType, String body) {
+        ExchangeStrategies strategies = ExchangeStrategies.builder()
+                .codecs(codecs -> codecs.customCodecs().register(new Jackson2JsonDecoder(new ObjectMapper(), WebClientConfig.NDJSON)))
+                .build();
+        WebClient webClient = WebClient.builder()
+                .baseUrl(url)
+                .exchangeStrategies(strategies)
+                .filter(new WebClientResponseErrorFilter())
+                .exchangeFunction(request -> {
+                    lastRequest.set(request);
+                    return Mono.just(ClientResponse.create(status, strategies)
+                            .header(HttpHeaders.CONTENT_TYPE, contentType.toString())
+                            .body(body)
+                            .build());
+                })
+                .build();
+        return new ReactiveCustomerServiceImpl(webClient);
+    }
+
+    @Test
+    void FindCustomers_Success() {
+        ReactiveCustomerServiceImpl customerService = serviceReturning(HttpStatus.OK, MediaType.APPLICATION_JSON,
+                "{\"customers\":[{\"id\":1,\"firstName\":\"John\",\"middleName\":\"Smith\",\"lastName\":\"Doe\"}],\"next\":1}");
+
+        CustomerPageDTO customerPage = customerService.findCustomers(0L, 1).block();
+        assertThat(customerPage.getNext()).isEqualTo(1L);
+        assertThat(customerPage.getCustomers()).extracting(CustomerDTO::getFirstName).containsExactly("John");
+        assertThat(lastRequest.get().url().toString()).isEqualTo(url + "/all?after=0&limit=1");
+    }
+
+    @Test
+    void StreamCustomers_Ndjson_DecodesEachLine() {
+        ReactiveCustomerServiceImpl customerService = serviceReturning(HttpStatus.OK, WebClientConfig.NDJSON,
+                "{\"id\":1,\"firstName\":\"John\",\"lastName\":\"Doe\"}\n{\"id\":2,\"firstName\":\"Jane\",\"lastName\":\"Doe\"}\n");
+
+        List<CustomerDTO> customerDTOList = customerService.streamCustomers().collectList().block();
+        assertThat(customerDTOList).extracting(CustomerDTO::getId).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void FindCustomerById_NonExisting_ThrowException() {
+        ReactiveCustomerServiceImpl customerService = serviceReturning(HttpStatus.NOT_FOUND, MediaType.APPLICATION_JSON, "{}");
+
+        HttpClientErrorException exception = assertThrows(HttpClientErrorException.class,
+                () -> customerService.findCustomerById(100L).block());
+        assertThat(exception.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void SaveCustomer_ServerError_ThrowException() {
+        ReactiveCustomerServiceImpl customerService = serviceReturning(HttpStatus.SERVICE_UNAVAILABLE, MediaType.APPLICATION_JSON, "{}");
+
+        HttpServerErrorException exception = assertThrows(HttpServerErrorException.class,
+                () -> customerService.saveCustomer(new CustomerDTO(null, "John", "Smith", "Doe")).block());
+        assertThat(exception.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    }
+}
@@ -0,0 +1,131 @@
+package com.programming.dashboard;
+
+import com.programming.dashboard.dto.CustomerChangesDTO;
+import com.programming.dashboard.dto.CustomerDTO;
+import com.programming.dashboard.dto.CustomerPageDTO;
+import com.programming.dashboard.service.CustomerService;
+import com.programming.dashboard.service.ReplicaCustomerService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaCustomerServiceTest {
+
+    @Mock
+    private CustomerService customerService;
+
+    private ReplicaCustomerService replicaCustomerService;
+
+    @BeforeEach
+    void setUp() {
+        replicaCustomerService = new ReplicaCustomerService(customerService, 2, "1s", "1m");
+    }
+
+    @Test
+    void Sync_SeveralPages_ServesReadsLocally() {
+        when(customerService.findCustomerChanges("", 2)).thenReturn(changes("t1", true,
+                new CustomerDTO(3L, "Jane", null, "Doe", 0L), new CustomerDTO(1L, "John", "Smith", "Doe", 2L)));
+        when(customerService.findCustomerChanges("t1", 2)).thenReturn(changes("t2", false,
+                new CustomerDTO(2L, "Jim", null, "Doe", 0L)));
+
+        assertThat(replicaCustomerService.sync()).isEqualTo(3);
+
+        CustomerPageDTO firstPage = Objects.requireNonNull(replicaCustomerService.findCustomers(0L, 2).getBody());
+        assertThat(firstPage.getCustomers()).extracting(CustomerDTO::getId).containsExactly(1L, 2L);
+        assertThat(firstPage.getNext()).isEqualTo(2L);
+        CustomerPageDTO lastPage = Objects.requireNonNull(replicaCustomerService.findCustomers(2L, 2).getBody());
+        assertThat(lastPage.getCustomers()).extracting(CustomerDTO::getFirstName).containsExactly("Jane");
+        assertThat(lastPage.getNext()).isNull();
+        List<CustomerDTO> customerDTOList = replicaCustomerService.findCustomerById(1L).getBody();
+        assertThat(customerDTOList).containsExactly(new CustomerDTO(1L, "John", "Smith", "Doe", 2L));
+        verify(customerService, never()).findCustomers(anyLong(), anyInt());
+        verify(customerService, never()).findCustomerById(anyLong());
+    }
+
+    @Test
+    void FindCustomers_NotLoaded_FallsBackToCustomerService() {
+        when(customerService.findCustomers(0L, 10))
+                .thenReturn(ResponseEntity.ok().body(new CustomerPageDTO(Collections.emptyList(), null)));
+
+        replicaCustomerService.findCustomers(0L, 10);
+
+        verify(customerService).findCustomers(0L, 10);
+        assertThat(replicaCustomerService.lagMillis()).isEqualTo(-1);
+    }
+
+    @Test
+    void FindCustomers_LagPastMaxStaleness_FallsBackToCustomerService() throws Exception {
+        replicaCustomerService = new ReplicaCustomerService(customerService, 2, "1s", "1ms");
+        when(customerService.findCustomerChanges("", 2)).thenReturn(changes("t1", false));
+        when(customerService.findCustomers(0L, 10))
+                .thenReturn(ResponseEntity.ok().body(new CustomerPageDTO(Collections.emptyList(), null)));
+        replicaCustomerService.sync();
+        Thread.sleep(10);
+
+        replicaCustomerService.findCustomers(0L, 10);
+
+        verify(customerService).findCustomers(0L, 10);
+    }
+
+    @Test
+    void FindCustomerById_UnknownId_FallsBackToCustomerService() {
+        when(customerService.findCustomerChanges("", 2)).thenReturn(changes("t1", false));
+        when(customerService.findCustomerById(7L))
+                .thenReturn(ResponseEntity.ok().body(Collections.singletonList(new CustomerDTO(7L, "Ann", null, "Lee", 0L))));
+        replicaCustomerService.sync();
+
+        assertThat(replicaCustomerService.findCustomerById(7L).getBody()).extracting(CustomerDTO::getFirstName)
+                .containsExactly("Ann");
+    }
+
+    @Test
+    void UpdateCustomer_ThenOlderChangeSynced_KeepsNewerVersion() {
+        when(customerService.updateCustomer(any()))
+                .thenReturn(ResponseEntity.ok().body(new CustomerDTO(1L, "Johnny", "Smith", "Doe", 3L)));
+        when(customerService.findCustomerChanges("", 2)).thenReturn(changes("t1", false,
+                new CustomerDTO(1L, "John", "Smith", "Doe", 2L)));
+
+        replicaCustomerService.updateCustomer(new CustomerDTO(1L, "Johnny", "Smith", "Doe", 2L));
+        replicaCustomerService.sync();
+
+        assertThat(replicaCustomerService.findCustomerById(1L).getBody()).extracting(CustomerDTO::getFirstName)
+                .containsExactly("Johnny");
+    }
+
+    @Test
+    void BindTo_ExposesLagAndSize() {
+        when(customerService.findCustomerChanges("", 2)).thenReturn(changes("t1", false,
+                new CustomerDTO(1L, "John", "Smith", "Doe", 0L)));
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        replicaCustomerService.bindTo(meterRegistry);
+
+        assertThat(meterRegistry.get("customer.replica.lag").gauge().value()).isEqualTo(-1);
+        replicaCustomerService.sync();
+
+        assertThat(meterRegistry.get("customer.replica.lag").gauge().value()).isBetween(0.0, 1000.0);
+        assertThat(meterRegistry.get("customer.replica.size").gauge().value()).isEqualTo(1);
+    }
+
+    private static ResponseEntity<CustomerChangesDTO> changes(String next, boolean hasMore, CustomerDTO... customerDTOs) {
+        return ResponseEntity.ok().body(new CustomerChangesDTO(Arrays.asList(customerDTOs), next, hasMore));
+    }
+}
@@ -0,0 +1,23 @@
+package com.programming.loadtest;
+
+import com.programming.customer.CustomerApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+import java.util.Arrays;
+
+/**
+ * Starts the customer service with the perf profile: an in-memory database seeded with synthetic customers (see
+ * application-perf.properties). Arguments go to Spring Boot, e.g. {@code --loadtest.seed.customers=5000000}.
+ */
+public final class CustomerPerfApplication {
+
+    private CustomerPerfApplication() {
+    }
+
+    public static void main(String[] args) {
+        // On the command line, so it takes precedence over the spring.profiles.active in application.properties.
+        String[] perfArgs = Arrays.copyOf(args, args.length + 1);
+        perfArgs[args.length] = "--spring.profiles.active=perf";
+        new SpringApplicationBuilder(CustomerApplication.class, CustomerSeeder.class).run(perfArgs);
+    }
+}
@@ -0,0 +1,90 @@
+package com.programming.loadtest;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+
+/**
+ * Fills an empty customer table with {@code loadtest.seed.customers} synthetic customers before the service takes
+ * traffic. As an {@link ApplicationRunner} it finishes before the application is ready, so the search index, which
+ * loads then, sees every seeded customer. Rows go in as plain JDBC batches; through JPA, millions of rows would take
+ * many times longer.
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class CustomerSeeder implements ApplicationRunner {
+
+    private static final String INSERT_CUSTOMER = "INSERT INTO CUSTOMER (ID, FIRST_NAME, MIDDLE_NAME, LAST_NAME, "
+            + "VERSION, CREATED_DATETIME, CREATED_BY, MODIFIED_DATETIME, MODIFIED_BY) "
+            + "VALUES (?, ?, ?, ?, 0, ?, ?, ?, ?)";
+
+    private static final String SEEDER = "seeder";
+
+    private final DataSource dataSource;
+
+    @Value("${loadtest.seed.customers}")
+    private long customers;
+
+    @Value("${loadtest.seed.batch-size}")
+    private int batchSize;
+
+    @Override
+    public void run(ApplicationArguments args) throws SQLException {
+        long startNanos = System.nanoTime();
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        try (Connection connection = dataSource.getConnection()) {
+            if (countCustomers(connection) > 0) {
+                log.info("Customer table is not empty, skipping seeding.");
+                return;
+            }
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(INSERT_CUSTOMER)) {
+                for (long id = 1; id <= customers; id++) {
+                    insert.setLong(1, id);
+                    insert.setString(2, SyntheticCustomers.firstName(id));
+                    String middleName = SyntheticCustomers.middleName(id);
+                    if (middleName == null) {
+                        insert.setNull(3, Types.VARCHAR);
+                    } else {
+                        insert.setString(3, middleName);
+                    }
+                    insert.setString(4, SyntheticCustomers.lastName(id));
+                    insert.setTimestamp(5, now);
+                    insert.setString(6, SEEDER);
+                    insert.setTimestamp(7, now);
+                    insert.setString(8, SEEDER);
+                    insert.addBatch();
+                    if (id % batchSize == 0 || id == customers) {
+                        insert.executeBatch();
+                        connection.commit();
+                    }
+                }
+            }
+            try (Statement statement = connection.createStatement()) {
+                // New customers from the service must not collide with seeded ids.
+                statement.execute("ALTER SEQUENCE CUSTOMER_SEQ RESTART WITH " + (customers + 1));
+            }
+            connection.commit();
+        }
+        log.info("Seeded {} customers in {} ms.", customers, (System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    private static long countCustomers(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM CUSTOMER")) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.programming.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.programming.dashboard.dto.CustomerChangesDTO;
+import com.programming.dashboard.dto.CustomerDTO;
+import com.programming.dashboard.dto.CustomerPageDTO;
+import com.programming.dashboard.dto.ErrorDTO;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Stand-in for the customer service's /api/customer endpoints, served in-process by the JDK HTTP server so the
+ * dashboard can be loaded without a customer service or a database behind it. Customers 1 to N exist, with the names
+ * {@link SyntheticCustomers} gives them; saves and updates are answered but not kept, and the change feed is always
+ * empty. Each response is held back until the configured latency plus a uniformly random jitter has passed since the
+ * request arrived.
+ */
+@Slf4j
+class CustomerServiceStub {
+
+    private static final String PREFIX = "/api/customer";
+
+    private static final String SMILE = "application/x-jackson-smile";
+
+    private static final String JSON = "application/json";
+
+    private final HttpServer httpServer;
+
+    private final ExecutorService executor;
+
+    private final long customers;
+
+    private final long latencyNanos;
+
+    private final long jitterNanos;
+
+    private final AtomicLong nextId;
+
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+
+    private final ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+
+    CustomerServiceStub(int port, int threads, long customers, Duration latency, Duration jitter) throws IOException {
+        this.customers = customers;
+        this.latencyNanos = latency.toNanos();
+        this.jitterNanos = jitter.toNanos();
+        this.nextId = new AtomicLong(customers + 1);
+        // Without TCP_NODELAY, responses stall about 40 ms on Nagle plus delayed ACKs, swamping the simulated latency.
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        this.httpServer = HttpServer.create(new InetSocketAddress(port), 0);
+        // The latency is simulated by parking the handling thread, so there must be a thread per concurrent request.
+        this.executor = Executors.newFixedThreadPool(threads);
+        httpServer.setExecutor(executor);
+        httpServer.createContext(PREFIX, this::handle);
+    }
+
+    void start() {
+        httpServer.start();
+        log.info("Customer service stub serving {} customers on port {} with {} ms latency and {} ms jitter.",
+                customers, port(), TimeUnit.NANOSECONDS.toMillis(latencyNanos),
+                TimeUnit.NANOSECONDS.toMillis(jitterNanos));
+    }
+
+    int port() {
+        return httpServer.getAddress().getPort();
+    }
+
+    void stop() {
+        httpServer.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        long arrivalNanos = System.nanoTime();
+        try {
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getPath().substring(PREFIX.length());
+            Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+            int status = 200;
+            Object body;
+            if ("GET".equals(method) && path.isEmpty() && query.containsKey("ids")) {
+                body = findByIds(query.get("ids"));
+            } else if ("GET".equals(method) && "/all".equals(path)) {
+                body = page(number(query, "after", 0), (int) number(query, "limit", 20));
+            } else if ("GET".equals(method) && "/search".equals(path)) {
+                body = search(query.getOrDefault("q", ""), (int) number(query, "limit", 20));
+            } else if ("GET".equals(method) && "/changes".equals(path)) {
+                body = new CustomerChangesDTO(Collections.emptyList(), query.get("since"), false);
+            } else if ("GET".equals(method) && path.matches("/\\d+")) {
+                long id = Long.parseLong(path.substring(1));
+                if (id <= customers) {
+                    body = customer(id);
+                } else {
+                    status = 404;
+                    body = error("Customer not found with id: " + id);
+                }
+            } else if ("POST".equals(method) && "/save".equals(path)) {
+                CustomerDTO customerDTO = read(exchange);
+                customerDTO.setId(nextId.getAndIncrement());
+                customerDTO.setVersion(0L);
+                body = customerDTO;
+            } else if ("PUT".equals(method) && path.startsWith("/update/")) {
+                CustomerDTO customerDTO = read(exchange);
+                customerDTO.setId(Long.parseLong(path.substring("/update/".length())));
+                customerDTO.setVersion(customerDTO.getVersion() == null ? 1L : customerDTO.getVersion() + 1);
+                body = customerDTO;
+            } else {
+                status = 404;
+                body = error("No handler for " + method + " " + exchange.getRequestURI());
+            }
+            awaitLatency(arrivalNanos);
+            respond(exchange, status, body);
+        } catch (RuntimeException e) {
+            respond(exchange, 400, error(e.getMessage()));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private List<CustomerDTO> findByIds(String ids) {
+        List<CustomerDTO> customerDTOList = new ArrayList<>();
+        for (String id : ids.split(",")) {
+            long customerId = Long.parseLong(id.trim());
+            if (customerId >= 1 && customerId <= customers) {
+                customerDTOList.add(customer(customerId));
+            }
+        }
+        return customerDTOList;
+    }
+
+    private CustomerPageDTO page(long after, int limit) {
+        List<CustomerDTO> customerDTOList = new ArrayList<>(limit);
+        for (long id = after + 1; id <= customers && customerDTOList.size() < limit; id++) {
+            customerDTOList.add(customer(id));
+        }
+        long last = after + customerDTOList.size();
+        return new CustomerPageDTO(customerDTOList, last < customers ? last : null);
+    }
+
+    /**
+     * Matches on the last name only, scanning from a random offset; good enough to give the dashboard realistic
+     * result sizes without the cost of an index.
+     */
+    private List<CustomerDTO> search(String query, int limit) {
+        String term = query.trim().toLowerCase(Locale.ROOT);
+        List<CustomerDTO> customerDTOList = new ArrayList<>(limit);
+        long start = ThreadLocalRandom.current().nextLong(customers) + 1;
+        for (long i = 0; i < customers && i < limit * 100L && customerDTOList.size() < limit; i++) {
+            long id = (start + i - 1) % customers + 1;
+            if (SyntheticCustomers.lastName(id).toLowerCase(Locale.ROOT).startsWith(term)) {
+                customerDTOList.add(customer(id));
+            }
+        }
+        return customerDTOList;
+    }
+
+    private static CustomerDTO customer(long id) {
+        return new CustomerDTO(id, SyntheticCustomers.firstName(id), SyntheticCustomers.middleName(id),
+                SyntheticCustomers.lastName(id), 0L);
+    }
+
+    private static ErrorDTO error(String message) {
+        return new ErrorDTO(new Date(), message, "stub");
+    }
+
+    private void awaitLatency(long arrivalNanos) {
+        long delayNanos = latencyNanos
+                + (jitterNanos > 0 ? ThreadLocalRandom.current().nextLong(jitterNanos + 1) : 0);
+        long deadline = arrivalNanos + delayNanos;
+        for (long remaining = deadline - System.nanoTime(); remaining > 0; remaining = deadline - System.nanoTime()) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    private CustomerDTO read(HttpExchange exchange) {
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        ObjectMapper mapper = contentType != null && contentType.startsWith(SMILE) ? smileMapper : jsonMapper;
+        try {
+            return mapper.readValue(exchange.getRequestBody(), CustomerDTO.class);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unreadable customer: " + e.getMessage(), e);
+        }
+    }
+
+    // Answers in Smile when the client lists it ahead of JSON, as the dashboard does by default.
+    private void respond(HttpExchange exchange, int status, Object body) throws IOException {
+        String accept = exchange.getRequestHeaders().getFirst("Accept");
+        boolean smile = accept != null && accept.contains(SMILE)
+                && (!accept.contains(JSON) || accept.indexOf(SMILE) < accept.indexOf(JSON));
+        byte[] bytes = (smile ? smileMapper : jsonMapper).writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", smile ? SMILE : JSON);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(bytes);
+        }
+    }
+
+    private static Map<String, String> query(String rawQuery) {
+        Map<String, String> parameters = new HashMap<>();
+        if (rawQuery == null) {
+            return parameters;
+        }
+        for (String parameter : rawQuery.split("&")) {
+            int separator = parameter.indexOf('=');
+            if (separator > 0) {
+                parameters.put(decode(parameter.substring(0, separator)), decode(parameter.substring(separator + 1)));
+            }
+        }
+        return parameters;
+    }
+
+    private static long number(Map<String, String> query, String name, long defaultValue) {
+        String value = query.get(name);
+        return value == null || value.isEmpty() ? defaultValue : Long.parseLong(value);
+    }
+
+    private static String decode(String value) {
+        try {
+            return URLDecoder.decode(value, StandardCharsets.UTF_8.name());
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.programming.loadtest;
+
+import com.programming.dashboard.DashboardApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextClosedEvent;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Starts the dashboard against a {@link CustomerServiceStub} in the same JVM, so the dashboard's own overhead can be
+ * measured with a customer service of known, fixed latency. Stub options are {@code --loadtest.stub.customers},
+ * {@code --loadtest.stub.latency}, {@code --loadtest.stub.jitter}, {@code --loadtest.stub.threads} and
+ * {@code --loadtest.stub.port}; all other arguments go to Spring Boot.
+ */
+public final class DashboardPerfApplication {
+
+    private DashboardPerfApplication() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Options options = new Options(args);
+        CustomerServiceStub stub = new CustomerServiceStub(
+                options.integer("loadtest.stub.port", 0),
+                options.integer("loadtest.stub.threads", 400),
+                options.number("loadtest.stub.customers", 1_000_000),
+                options.duration("loadtest.stub.latency", "5ms"),
+                options.duration("loadtest.stub.jitter", "2ms"));
+        stub.start();
+        String[] dashboardArgs = Arrays.copyOf(args, args.length + 1);
+        dashboardArgs[args.length] = "--customer.app.uri=http://localhost:" + stub.port() + "/api/customer";
+        ApplicationListener<ContextClosedEvent> stopStub = event -> stub.stop();
+        new SpringApplicationBuilder(DashboardApplication.class)
+                .listeners(stopStub)
+                .run(dashboardArgs);
+    }
+}
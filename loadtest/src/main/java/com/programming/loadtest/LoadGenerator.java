@@ -0,0 +1,238 @@
+package com.programming.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.apache.http.HttpHeaders;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Drives the customer service or the dashboard with a mix of id lookups, listing pages, searches and, on the customer
+ * service, multi-id lookups, then prints throughput and latency percentiles per endpoint.
+ * <p>
+ * Closed model ({@code --model=closed}): {@code --users} virtual users each send a request, wait for the response and
+ * {@code --think-time}, and repeat, so throughput follows the latency of the system under test. Open model
+ * ({@code --model=open}): requests start at {@code --rate} per second whatever the system does, and latency is
+ * measured from when each request was due to start rather than when a thread got to it. A stall then shows up in the
+ * percentiles for every request it delayed, instead of quietly lowering the rate (coordinated omission).
+ * <p>
+ * Other options: {@code --target} (base URL), {@code --app=customer|dashboard}, {@code --duration}, {@code --warmup}
+ * (measured separately and discarded), {@code --max-in-flight} (open model worker threads), {@code --customers} (ids
+ * are drawn from 1 to this) and {@code --hot-ids} (when above 0, id lookups only use that many ids, to measure the
+ * caches rather than the database).
+ */
+public final class LoadGenerator {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final List<Endpoint> endpoints;
+
+    private final int totalWeight;
+
+    private final CloseableHttpClient httpClient;
+
+    private LoadGenerator(List<Endpoint> endpoints, int maxConnections, Duration timeout) {
+        this.endpoints = endpoints;
+        this.totalWeight = endpoints.stream().mapToInt(endpoint -> endpoint.weight).sum();
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnections);
+        int timeoutMillis = (int) timeout.toMillis();
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout(timeoutMillis)
+                        .setSocketTimeout(timeoutMillis)
+                        .setConnectionRequestTimeout(timeoutMillis)
+                        .build())
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new Options(args);
+        String app = options.string("app", "customer");
+        String target = options.string("target",
+                "customer".equals(app) ? "http://localhost:8081" : "http://localhost:8080");
+        String model = options.string("model", "closed");
+        int users = options.integer("users", 50);
+        int maxInFlight = options.integer("max-in-flight", 500);
+        Duration warmup = options.duration("warmup", "10s");
+        Duration duration = options.duration("duration", "60s");
+
+        List<Endpoint> endpoints = endpoints(app, target, options.number("customers", 1_000_000),
+                options.number("hot-ids", 0));
+        LoadGenerator loadGenerator = new LoadGenerator(endpoints, "open".equals(model) ? maxInFlight : users,
+                options.duration("timeout", "10s"));
+        long startNanos = System.nanoTime();
+        long measureFromNanos = startNanos + warmup.toNanos();
+        long endNanos = measureFromNanos + duration.toNanos();
+        Thread warmupReset = new Thread(() -> {
+            LockSupport.parkNanos(measureFromNanos - System.nanoTime());
+            loadGenerator.endpoints.forEach(Endpoint::reset);
+        });
+        warmupReset.start();
+        if ("open".equals(model)) {
+            loadGenerator.runOpen(options.integer("rate", 1000), maxInFlight, endNanos);
+        } else {
+            loadGenerator.runClosed(users, options.duration("think-time", "0ms"), endNanos);
+        }
+        warmupReset.join();
+        loadGenerator.httpClient.close();
+        loadGenerator.report(System.out, Duration.ofNanos(System.nanoTime() - measureFromNanos));
+    }
+
+    private static List<Endpoint> endpoints(String app, String target, long customers, long hotIds) {
+        long idRange = hotIds > 0 ? Math.min(hotIds, customers) : customers;
+        String base = target + ("customer".equals(app) ? "/api/customer" : "/dashboard/customer");
+        List<Endpoint> endpoints = new ArrayList<>();
+        endpoints.add(new Endpoint("GET /{id}", 60, random -> base + "/" + (random.nextLong(idRange) + 1)));
+        endpoints.add(new Endpoint("GET /all", 20,
+                random -> base + "/all?after=" + random.nextLong(customers) + "&limit=20"));
+        endpoints.add(new Endpoint("GET /search", 15, random -> base + "/search?q="
+                + SyntheticCustomers.LAST_NAMES[random.nextInt(SyntheticCustomers.LAST_NAMES.length)]
+                .substring(0, 3).toLowerCase(Locale.ROOT) + "&limit=10"));
+        if ("customer".equals(app)) {
+            endpoints.add(new Endpoint("GET ?ids=", 5, random -> {
+                StringBuilder ids = new StringBuilder(base).append("?ids=");
+                for (int i = 0; i < 10; i++) {
+                    ids.append(i == 0 ? "" : ",").append(random.nextLong(idRange) + 1);
+                }
+                return ids.toString();
+            }));
+        }
+        return endpoints;
+    }
+
+    private void runClosed(int users, Duration thinkTime, long endNanos) throws InterruptedException {
+        List<Thread> threads = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            Thread thread = new Thread(() -> {
+                while (System.nanoTime() < endNanos) {
+                    send(pick(), System.nanoTime());
+                    if (!thinkTime.isZero()) {
+                        LockSupport.parkNanos(thinkTime.toNanos());
+                    }
+                }
+            }, "user-" + i);
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    private void runOpen(int rate, int maxInFlight, long endNanos) throws InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(maxInFlight);
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        for (long intendedNanos = System.nanoTime(); intendedNanos < endNanos; intendedNanos += intervalNanos) {
+            long waitNanos = intendedNanos - System.nanoTime();
+            if (waitNanos > 0) {
+                LockSupport.parkNanos(waitNanos);
+            }
+            long intendedStartNanos = intendedNanos;
+            Endpoint endpoint = pick();
+            workers.execute(() -> send(endpoint, intendedStartNanos));
+        }
+        workers.shutdown();
+        workers.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    private Endpoint pick() {
+        int value = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Endpoint endpoint : endpoints) {
+            value -= endpoint.weight;
+            if (value < 0) {
+                return endpoint;
+            }
+        }
+        throw new IllegalStateException("No endpoints");
+    }
+
+    private void send(Endpoint endpoint, long startNanos) {
+        HttpGet request = new HttpGet(endpoint.uri.apply(ThreadLocalRandom.current()));
+        request.setHeader(HttpHeaders.ACCEPT, "application/json");
+        boolean ok;
+        try (CloseableHttpResponse response = httpClient.execute(request)) {
+            EntityUtils.consume(response.getEntity());
+            // An unknown id is a valid answer, not a failure.
+            int status = response.getStatusLine().getStatusCode();
+            ok = status < 400 || status == 404;
+        } catch (IOException e) {
+            ok = false;
+        }
+        endpoint.latency.recordValue(System.nanoTime() - startNanos);
+        if (!ok) {
+            endpoint.errors.increment();
+        }
+    }
+
+    private void report(PrintStream out, Duration measured) {
+        double seconds = measured.toNanos() / 1e9;
+        out.printf(Locale.ROOT, "%-14s %10s %8s %10s %9s %9s %9s %9s %9s%n",
+                "endpoint", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        Histogram total = new Histogram(3);
+        long totalErrors = 0;
+        for (Endpoint endpoint : endpoints) {
+            Histogram histogram = endpoint.latency.getIntervalHistogram();
+            long errors = endpoint.errors.sum();
+            total.add(histogram);
+            totalErrors += errors;
+            print(out, endpoint.name, histogram, errors, seconds);
+        }
+        print(out, "total", total, totalErrors, seconds);
+    }
+
+    private static void print(PrintStream out, String name, Histogram histogram, long errors, double seconds) {
+        out.printf(Locale.ROOT, "%-14s %10d %8d %10.1f", name, histogram.getTotalCount(), errors,
+                histogram.getTotalCount() / seconds);
+        for (double percentile : PERCENTILES) {
+            out.printf(Locale.ROOT, " %9.2f", histogram.getValueAtPercentile(percentile) / 1e6);
+        }
+        out.printf(Locale.ROOT, " %9.2f%n", histogram.getMaxValue() / 1e6);
+    }
+
+    private static final class Endpoint {
+
+        private final String name;
+
+        private final int weight;
+
+        private final Function<ThreadLocalRandom, String> uri;
+
+        // Recorders, so the warmup interval can be swapped out and dropped while requests are still being recorded.
+        private final Recorder latency = new Recorder(3);
+
+        private final LongAdder errors = new LongAdder();
+
+        Endpoint(String name, int weight, Function<ThreadLocalRandom, String> uri) {
+            this.name = name;
+            this.weight = weight;
+            this.uri = uri;
+        }
+
+        void reset() {
+            latency.getIntervalHistogram();
+            errors.reset();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.programming.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+
+import java.time.Duration;
+
+/**
+ * {@code --name=value} command line options with defaults. Durations take the same forms as in the application
+ * properties, e.g. {@code 500ms} or {@code 2m}.
+ */
+final class Options {
+
+    private final SimpleCommandLinePropertySource propertySource;
+
+    Options(String[] args) {
+        this.propertySource = new SimpleCommandLinePropertySource(args);
+    }
+
+    String string(String name, String defaultValue) {
+        String value = propertySource.getProperty(name);
+        return value == null ? defaultValue : value;
+    }
+
+    int integer(String name, int defaultValue) {
+        return Integer.parseInt(string(name, String.valueOf(defaultValue)));
+    }
+
+    long number(String name, long defaultValue) {
+        return Long.parseLong(string(name, String.valueOf(defaultValue)));
+    }
+
+    Duration duration(String name, String defaultValue) {
+        return DurationStyle.detectAndParse(string(name, defaultValue));
+    }
+}
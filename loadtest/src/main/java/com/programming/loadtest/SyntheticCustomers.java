@@ -0,0 +1,41 @@
+package com.programming.loadtest;
+
+/**
+ * Synthetic customers whose names follow from their ids, so the seeded database, the customer stub and the load
+ * generator agree on who exists without sharing any state. Names are drawn from common first and last names, so they
+ * repeat the way real ones do.
+ */
+final class SyntheticCustomers {
+
+    static final String[] FIRST_NAMES = {"James", "Mary", "John", "Patricia", "Robert", "Jennifer", "Michael",
+            "Linda", "William", "Elizabeth", "David", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas",
+            "Sarah", "Charles", "Karen", "Daniel", "Nancy", "Matthew", "Lisa", "Anthony", "Margaret", "Mark", "Betty"};
+
+    static final String[] LAST_NAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller",
+            "Davis", "Rodriguez", "Martinez", "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor",
+            "Moore", "Jackson", "Martin", "Lee", "Perez", "Thompson", "White", "Harris", "Sanchez", "Clark", "Lewis"};
+
+    private SyntheticCustomers() {
+    }
+
+    static String firstName(long id) {
+        return FIRST_NAMES[index(id, 1, FIRST_NAMES.length)];
+    }
+
+    static String middleName(long id) {
+        return id % 3 == 0 ? null : FIRST_NAMES[index(id, 2, FIRST_NAMES.length)];
+    }
+
+    static String lastName(long id) {
+        return LAST_NAMES[index(id, 3, LAST_NAMES.length)];
+    }
+
+    // SplitMix64 finalizer, so neighbouring ids get unrelated names.
+    private static int index(long id, long salt, int size) {
+        long z = id * 0x9E3779B97F4A7C15L + salt;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= z >>> 31;
+        return (int) Math.floorMod(z, (long) size);
+    }
+}